@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.vavr.collection.Vector;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChunkBenchmark {
+
+  @Param({ "1000", "100000" })
+  private int size;
+
+  private Vector<Integer> vector;
+  private Chunk<Integer> chunk;
+
+  @Setup
+  public void setup() {
+    vector = Vector.range(0, size);
+    chunk = Chunk.ofInts(vector.toJavaStream().mapToInt(Integer::intValue).toArray());
+  }
+
+  @Benchmark
+  public long vectorMapFilterSum() {
+    return vector.map(x -> x * 3).filter(x -> x % 2 == 0).foldLeft(0L, (acc, x) -> acc + x);
+  }
+
+  @Benchmark
+  public long chunkMapFilterSum() {
+    return chunk.mapInt(x -> x * 3).filterInt(x -> x % 2 == 0).mapToLong(x -> x).foldLong(0, Long::sum);
+  }
+
+  @Benchmark
+  public int chunkSliceConcat() {
+    var half = size / 2;
+    return chunk.slice(half, size).concat(chunk.slice(0, half)).getInt(half);
+  }
+}
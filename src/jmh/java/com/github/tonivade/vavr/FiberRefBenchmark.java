@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.vavr.control.Either;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FiberRefBenchmark {
+
+  private static final ThreadLocal<String> THREAD_LOCAL = ThreadLocal.withInitial(() -> "trace");
+  private static final FiberRef<String> FIBER_REF = FiberRef.of("trace");
+  // a lookup in a node of the run loop, like a fiber ref read, without the Either of a task
+  private static final ZIO<Nothing, Nothing, String> THREAD_LOCAL_LOOKUP = new ZIO.Local<>(fiber -> THREAD_LOCAL.get());
+
+  private ZIO<Nothing, Nothing, Integer> threadLocalChain;
+  private ZIO<Nothing, Nothing, Integer> threadLocalLookupChain;
+  private ZIO<Nothing, Nothing, Integer> fiberRefChain;
+
+  @Setup
+  public void setup() {
+    threadLocalChain = ZIO.pure(0);
+    threadLocalLookupChain = ZIO.pure(0);
+    fiberRefChain = FIBER_REF.<Nothing, Nothing>set("trace").andThen(ZIO.pure(0));
+    for (int i = 0; i < 1000; i++) {
+      threadLocalChain = threadLocalChain.flatMap(x -> ZIO.<Nothing, Nothing, String>task(THREAD_LOCAL::get).map(trace -> x + trace.length()));
+      threadLocalLookupChain = threadLocalLookupChain.flatMap(x -> THREAD_LOCAL_LOOKUP.map(trace -> x + trace.length()));
+      fiberRefChain = fiberRefChain.flatMap(x -> FIBER_REF.<Nothing, Nothing>get().map(trace -> x + trace.length()));
+    }
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> threadLocal() {
+    return threadLocalChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> threadLocalLookup() {
+    return threadLocalLookupChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> fiberRef() {
+    return fiberRefChain.provide(nothing());
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.vavr.control.Either;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ObservableBenchmark {
+
+  @Param({ "100", "1000" })
+  private int depth;
+
+  private ZIO<Nothing, Nothing, Integer> flatMapChain;
+  private ZIO<Nothing, Nothing, Integer> mapPipeline;
+
+  @Setup
+  public void setup() {
+    flatMapChain = ZIO.pure(0);
+    mapPipeline = ZIO.task(() -> 0);
+    for (int i = 0; i < depth; i++) {
+      flatMapChain = flatMapChain.flatMap(x -> ZIO.pure(x + 1));
+      mapPipeline = mapPipeline.map(x -> x + 1);
+    }
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> flatMapToObservable() {
+    return flatMapChain.toObservable(nothing()).blockingSingle();
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> flatMapToSingle() {
+    return flatMapChain.toSingle(nothing()).blockingGet();
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> mapToObservable() {
+    return mapPipeline.toObservable(nothing()).blockingSingle();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import io.vavr.control.Either;
+
+// the benchmarks with more than one thread measure contention, so they only mean something on a
+// machine with at least as many cores as threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RefBenchmark {
+
+  private final Ref<Long> ref = Ref.of(0L);
+  private final ZIO<Nothing, Nothing, Long> increment = ref.updateAndGet(x -> x + 1);
+
+  private final Ref<Long> backoffRef = Ref.withBackoff(0L);
+  private final ZIO<Nothing, Nothing, Long> backoffIncrement = backoffRef.updateAndGet(x -> x + 1);
+
+  private final CounterRef counter = CounterRef.of(0L);
+  private final ZIO<Nothing, Nothing, Unit> counterIncrement = counter.increment();
+
+  @Benchmark
+  @Threads(1)
+  public Either<Nothing, Long> updateAndGet1() {
+    return increment.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Either<Nothing, Long> updateAndGet4() {
+    return increment.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Either<Nothing, Long> updateAndGet16() {
+    return increment.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Either<Nothing, Long> updateAndGet64() {
+    return increment.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Either<Nothing, Long> backoffUpdateAndGet16() {
+    return backoffIncrement.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Either<Nothing, Long> backoffUpdateAndGet64() {
+    return backoffIncrement.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Either<Nothing, Unit> counterIncrement16() {
+    return counterIncrement.provide(nothing());
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Either<Nothing, Unit> counterIncrement64() {
+    return counterIncrement.provide(nothing());
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.vavr.control.Either;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SupervisorBenchmark {
+
+  @Param({ "none", "metrics" })
+  private String supervisor;
+
+  private ZIO<Nothing, Nothing, Integer> bareChain;
+  private ZIO<Nothing, Nothing, Integer> namedChain;
+
+  @Setup
+  public void setup() {
+    if (supervisor.equals("metrics")) {
+      Supervisor.install(new RuntimeMetrics());
+    }
+    bareChain = ZIO.pure(0);
+    namedChain = ZIO.pure(0);
+    for (int i = 0; i < 1000; i++) {
+      bareChain = bareChain.flatMap(x -> ZIO.task(() -> x + 1));
+      namedChain = namedChain.flatMap(x -> ZIO.<Nothing, Nothing, Integer>task(() -> x + 1).named("increment"));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    Supervisor.uninstall();
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> bareProvide() {
+    return bareChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> namedProvide() {
+    return namedChain.provide(nothing());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.vavr.control.Either;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ZIOBenchmark {
+
+  @Param({ "100", "1000" })
+  private int depth;
+
+  private ZIO<Nothing, Nothing, Integer> flatMapChain;
+  private ZIO<Nothing, Nothing, Integer> mapPipeline;
+  private ZIO<Nothing, Integer, Integer> foldMChain;
+  private ZIO<Nothing, Integer, Integer> orElseChain;
+  private ZIO<Environment, Nothing, Integer> accessMChain;
+  private ZIO<Nothing, Integer, Integer> mixedChain;
+
+  @Setup
+  public void setup() {
+    flatMapChain = ZIO.pure(0);
+    mapPipeline = ZIO.task(() -> 0);
+    foldMChain = ZIO.failure(0);
+    orElseChain = ZIO.failure(0);
+    accessMChain = ZIO.pure(0);
+    mixedChain = ZIO.task(() -> 0);
+    for (int i = 0; i < depth; i++) {
+      flatMapChain = flatMapChain.flatMap(x -> ZIO.pure(x + 1));
+      mapPipeline = mapPipeline.map(x -> x + 1);
+      foldMChain = foldMChain.foldM(e -> ZIO.failure(e + 1), ZIO::pure);
+      orElseChain = orElseChain.orElse(() -> ZIO.failure(1));
+      accessMChain = accessMChain.flatMap(x -> ZIO.accessM(env -> ZIO.pure(x + env.value)));
+      mixedChain = mixedChain.map(x -> x + 1)
+          .flatMap(x -> x % 2 == 0 ? ZIO.failure(x) : ZIO.task(() -> x))
+          .foldM(ZIO::pure, ZIO::pure);
+    }
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> flatMapProvide() {
+    return flatMapChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> flatMapToFuture() {
+    return flatMapChain.toFuture(nothing()).get();
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> mapProvide() {
+    return mapPipeline.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> mapToFuture() {
+    return mapPipeline.toFuture(nothing()).get();
+  }
+
+  @Benchmark
+  public Either<Integer, Integer> foldMProvide() {
+    return foldMChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Integer, Integer> orElseProvide() {
+    return orElseChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Integer, Integer> mixedProvide() {
+    return mixedChain.provide(nothing());
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> accessMProvide() {
+    return accessMChain.provide(Environment.INSTANCE);
+  }
+
+  @Benchmark
+  public Either<Nothing, Integer> accessMToFuture() {
+    return accessMChain.toFuture(Environment.INSTANCE).get();
+  }
+
+  public static final class Environment {
+
+    private static final Environment INSTANCE = new Environment();
+
+    private final int value = 1;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.function.Consumer;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+public final class AsyncChannels {
+
+  private AsyncChannels() {}
+
+  public static <R> ZIO<R, Throwable, Integer> read(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+    requireNonNull(channel);
+    requireNonNull(buffer);
+    return ZIO.async(callback -> register(callback, handler -> channel.read(buffer, position, null, handler)));
+  }
+
+  public static <R> ZIO<R, Throwable, Integer> write(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+    requireNonNull(channel);
+    requireNonNull(buffer);
+    return ZIO.async(callback -> register(callback, handler -> channel.write(buffer, position, null, handler)));
+  }
+
+  public static <R> ZIO<R, Throwable, Integer> read(AsynchronousSocketChannel channel, ByteBuffer buffer) {
+    requireNonNull(channel);
+    requireNonNull(buffer);
+    return ZIO.async(callback -> register(callback, handler -> channel.read(buffer, null, handler)));
+  }
+
+  public static <R> ZIO<R, Throwable, Integer> write(AsynchronousSocketChannel channel, ByteBuffer buffer) {
+    requireNonNull(channel);
+    requireNonNull(buffer);
+    return ZIO.async(callback -> register(callback, handler -> channel.write(buffer, null, handler)));
+  }
+
+  public static <R> ZIO<R, Throwable, Unit> connect(AsynchronousSocketChannel channel, SocketAddress address) {
+    requireNonNull(channel);
+    requireNonNull(address);
+    return ZIO.<R, Throwable, Void>async(
+        callback -> register(callback, handler -> channel.connect(address, null, handler)))
+        .map(ignore -> Unit.unit());
+  }
+
+  public static <R> ZIO<R, Throwable, AsynchronousSocketChannel> accept(AsynchronousServerSocketChannel channel) {
+    requireNonNull(channel);
+    return ZIO.async(callback -> register(callback, handler -> channel.accept(null, handler)));
+  }
+
+  // the channels throw the errors they find before starting the operation, like a closed channel,
+  // instead of passing them to the handler, so they are turned into failures here
+  private static <V> void register(Consumer<Try<Either<Throwable, V>>> callback,
+      Consumer<CompletionHandler<V, Void>> operation) {
+    var handler = AsyncChannels.<V>handler(callback);
+    try {
+      operation.accept(handler);
+    } catch (RuntimeException e) {
+      handler.failed(e, null);
+    }
+  }
+
+  private static <V> CompletionHandler<V, Void> handler(Consumer<Try<Either<Throwable, V>>> callback) {
+    return new CompletionHandler<>() {
+
+      @Override
+      public void completed(V result, Void attachment) {
+        callback.accept(Try.success(Either.right(result)));
+      }
+
+      @Override
+      public void failed(Throwable error, Void attachment) {
+        callback.accept(Try.success(Either.left(error)));
+      }
+    };
+  }
+}
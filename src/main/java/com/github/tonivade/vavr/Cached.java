@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * Shared state of memoize and cached: the first caller that finds the value missing or expired
+ * forks the effect, the rest wait for the same result. Once published, the result is a plain
+ * effect read with a single volatile load. The loader is forked masked, so an interruption of
+ * the caller can't leave it running without publishing its result.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+final class Cached<R, E, A> {
+
+  private static final long NEVER = -1;
+
+  private final ZIO<R, E, A> effect;
+  private final long ttl;
+
+  // null, OneShot while loading, or Entry
+  private final AtomicReference<Object> state = new AtomicReference<>();
+
+  private Cached(ZIO<R, E, A> effect, long ttl) {
+    this.effect = requireNonNull(effect);
+    this.ttl = ttl;
+  }
+
+  static <R, E, A> ZIO<R, E, A> memoize(ZIO<R, E, A> effect) {
+    return new Cached<>(effect, NEVER).get();
+  }
+
+  static <R, E, A> ZIO<R, E, A> cached(ZIO<R, E, A> effect, Duration ttl) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("ttl should be positive: " + ttl);
+    }
+    return new Cached<>(effect, ttl.toNanos()).get();
+  }
+
+  private ZIO<R, E, A> get() {
+    return ZIO.accessM(env -> lookup());
+  }
+
+  private ZIO<R, E, A> lookup() {
+    while (true) {
+      var current = state.get();
+      if (current instanceof Entry) {
+        var entry = (Entry<R, E, A>) current;
+        if (ttl == NEVER || entry.expiresAt - System.nanoTime() > 0) {
+          return entry.value;
+        }
+      } else if (current instanceof OneShot) {
+        return await((OneShot<Try<Either<E, A>>>) current);
+      }
+      var loading = new OneShot<Try<Either<E, A>>>();
+      if (state.compareAndSet(current, loading)) {
+        return effect.fork().map(fiber -> {
+          ((FiberContext<R, E, A>) fiber).observe(result -> publish(loading, result));
+          return Unit.unit();
+        }).uninterruptible().andThen(await(loading));
+      }
+    }
+  }
+
+  private void publish(OneShot<Try<Either<E, A>>> loading, Try<Either<E, A>> result) {
+    var expiresAt = ttl == NEVER ? 0 : System.nanoTime() + ttl;
+    state.set(new Entry<>(ZIO.from(() -> result.getOrElseGet(ZIORuntime::sneakyThrow)), expiresAt));
+    loading.complete(result);
+  }
+
+  private ZIO<R, E, A> await(OneShot<Try<Either<E, A>>> loading) {
+    return new ZIO.Async<>((env, callback) -> loading.onComplete(callback));
+  }
+
+  private static final class Entry<R, E, A> {
+
+    private final ZIO<R, E, A> value;
+    private final long expiresAt;
+
+    private Entry(ZIO<R, E, A> value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,952 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import io.vavr.Function1;
+import io.vavr.Function2;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+
+/*
+ * Immutable sequence backed by a flat array, of objects or of one primitive type, so numeric data
+ * is stored without boxing and the int, long and double operations never box. Slices share the
+ * array and concatenations are views, both O(1); a view is copied to a flat array of the common
+ * type the first time one of its elements is read, and that copy is kept.
+ */
+@SuppressWarnings("unchecked")
+public abstract class Chunk<A> implements Iterable<A> {
+
+  private static final int OBJECT = 0;
+  private static final int INT = 1;
+  private static final int LONG = 2;
+  private static final int DOUBLE = 3;
+  private static final int BYTE = 4;
+
+  private static final int MAX_DEPTH = 64;
+
+  private static final Chunk<?> EMPTY = new ObjectChunk<>(new Object[0], 0, 0);
+
+  private final int kind;
+
+  private Chunk(int kind) {
+    this.kind = kind;
+  }
+
+  public abstract int size();
+
+  public abstract A get(int index);
+
+  public int getInt(int index) {
+    return (Integer) get(index);
+  }
+
+  public long getLong(int index) {
+    return (Long) get(index);
+  }
+
+  public double getDouble(int index) {
+    return (Double) get(index);
+  }
+
+  public byte getByte(int index) {
+    return (Byte) get(index);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public <B> Chunk<B> map(Function1<? super A, ? extends B> mapper) {
+    var source = flat();
+    var result = new Object[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.apply(source.get(i));
+    }
+    return wrap(result, result.length);
+  }
+
+  public Chunk<A> filter(Predicate<? super A> predicate) {
+    var source = flat();
+    var selected = new int[source.size()];
+    int count = 0;
+    for (int i = 0; i < selected.length; i++) {
+      if (predicate.test(source.get(i))) {
+        selected[count++] = i;
+      }
+    }
+    return source.select(selected, count);
+  }
+
+  public Chunk<Integer> mapToInt(ToIntFunction<? super A> mapper) {
+    var source = flat();
+    var result = new int[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.applyAsInt(source.get(i));
+    }
+    return new IntChunk(result, 0, result.length);
+  }
+
+  public Chunk<Long> mapToLong(ToLongFunction<? super A> mapper) {
+    var source = flat();
+    var result = new long[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.applyAsLong(source.get(i));
+    }
+    return new LongChunk(result, 0, result.length);
+  }
+
+  public Chunk<Double> mapToDouble(ToDoubleFunction<? super A> mapper) {
+    var source = flat();
+    var result = new double[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.applyAsDouble(source.get(i));
+    }
+    return new DoubleChunk(result, 0, result.length);
+  }
+
+  public Chunk<Integer> mapInt(IntUnaryOperator mapper) {
+    var source = flat();
+    var result = new int[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.applyAsInt(source.getInt(i));
+    }
+    return new IntChunk(result, 0, result.length);
+  }
+
+  public Chunk<Long> mapLong(LongUnaryOperator mapper) {
+    var source = flat();
+    var result = new long[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.applyAsLong(source.getLong(i));
+    }
+    return new LongChunk(result, 0, result.length);
+  }
+
+  public Chunk<Double> mapDouble(DoubleUnaryOperator mapper) {
+    var source = flat();
+    var result = new double[source.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mapper.applyAsDouble(source.getDouble(i));
+    }
+    return new DoubleChunk(result, 0, result.length);
+  }
+
+  public Chunk<A> filterInt(IntPredicate predicate) {
+    var source = flat();
+    var selected = new int[source.size()];
+    int count = 0;
+    for (int i = 0; i < selected.length; i++) {
+      if (predicate.test(source.getInt(i))) {
+        selected[count++] = i;
+      }
+    }
+    return source.select(selected, count);
+  }
+
+  public Chunk<A> filterLong(LongPredicate predicate) {
+    var source = flat();
+    var selected = new int[source.size()];
+    int count = 0;
+    for (int i = 0; i < selected.length; i++) {
+      if (predicate.test(source.getLong(i))) {
+        selected[count++] = i;
+      }
+    }
+    return source.select(selected, count);
+  }
+
+  public Chunk<A> filterDouble(DoublePredicate predicate) {
+    var source = flat();
+    var selected = new int[source.size()];
+    int count = 0;
+    for (int i = 0; i < selected.length; i++) {
+      if (predicate.test(source.getDouble(i))) {
+        selected[count++] = i;
+      }
+    }
+    return source.select(selected, count);
+  }
+
+  public <B> B foldLeft(B zero, Function2<B, ? super A, B> combinator) {
+    var source = flat();
+    var result = zero;
+    for (int i = 0; i < source.size(); i++) {
+      result = combinator.apply(result, source.get(i));
+    }
+    return result;
+  }
+
+  public int foldInt(int zero, IntBinaryOperator combinator) {
+    var source = flat();
+    var result = zero;
+    for (int i = 0; i < source.size(); i++) {
+      result = combinator.applyAsInt(result, source.getInt(i));
+    }
+    return result;
+  }
+
+  public long foldLong(long zero, LongBinaryOperator combinator) {
+    var source = flat();
+    var result = zero;
+    for (int i = 0; i < source.size(); i++) {
+      result = combinator.applyAsLong(result, source.getLong(i));
+    }
+    return result;
+  }
+
+  public double foldDouble(double zero, DoubleBinaryOperator combinator) {
+    var source = flat();
+    var result = zero;
+    for (int i = 0; i < source.size(); i++) {
+      result = combinator.applyAsDouble(result, source.getDouble(i));
+    }
+    return result;
+  }
+
+  public Chunk<A> take(int n) {
+    return slice(0, n);
+  }
+
+  public Chunk<A> drop(int n) {
+    return slice(n, size());
+  }
+
+  public Chunk<A> slice(int from, int to) {
+    var start = Math.max(0, Math.min(from, size()));
+    var end = Math.max(start, Math.min(to, size()));
+    if (start == 0 && end == size()) {
+      return this;
+    }
+    return end == start ? empty() : view(start, end - start);
+  }
+
+  public Chunk<A> concat(Chunk<? extends A> other) {
+    if (other.isEmpty()) {
+      return this;
+    }
+    if (isEmpty()) {
+      return (Chunk<A>) other;
+    }
+    var concat = new Concat<A>(this, (Chunk<A>) other);
+    return concat.depth > MAX_DEPTH ? concat.flat() : concat;
+  }
+
+  public int[] toIntArray() {
+    var result = new int[size()];
+    if (kind == INT) {
+      copyInto(0, result.length, result, 0);
+    } else {
+      var source = flat();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = source.getInt(i);
+      }
+    }
+    return result;
+  }
+
+  public long[] toLongArray() {
+    var result = new long[size()];
+    if (kind == LONG) {
+      copyInto(0, result.length, result, 0);
+    } else {
+      var source = flat();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = source.getLong(i);
+      }
+    }
+    return result;
+  }
+
+  public double[] toDoubleArray() {
+    var result = new double[size()];
+    if (kind == DOUBLE) {
+      copyInto(0, result.length, result, 0);
+    } else {
+      var source = flat();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = source.getDouble(i);
+      }
+    }
+    return result;
+  }
+
+  public byte[] toByteArray() {
+    var result = new byte[size()];
+    if (kind == BYTE) {
+      copyInto(0, result.length, result, 0);
+    } else {
+      var source = flat();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = source.getByte(i);
+      }
+    }
+    return result;
+  }
+
+  public Seq<A> toSeq() {
+    return Array.ofAll(this);
+  }
+
+  @Override
+  public Iterator<A> iterator() {
+    var source = flat();
+    return new Iterator<>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < source.size();
+      }
+
+      @Override
+      public A next() {
+        if (index == source.size()) {
+          throw new NoSuchElementException();
+        }
+        return source.get(index++);
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Chunk)) {
+      return false;
+    }
+    var other = ((Chunk<?>) obj).flat();
+    var source = flat();
+    if (source.size() != other.size()) {
+      return false;
+    }
+    for (int i = 0; i < source.size(); i++) {
+      if (!Objects.equals(source.get(i), other.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    var source = flat();
+    int result = 1;
+    for (int i = 0; i < source.size(); i++) {
+      result = 31 * result + Objects.hashCode(source.get(i));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    var source = flat();
+    var builder = new StringBuilder("Chunk(");
+    for (int i = 0; i < source.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(source.get(i));
+    }
+    return builder.append(")").toString();
+  }
+
+  public static <A> Chunk<A> empty() {
+    return (Chunk<A>) EMPTY;
+  }
+
+  @SafeVarargs
+  public static <A> Chunk<A> of(A... values) {
+    // copied element by element, the varargs array never escapes so -Xlint:varargs stays quiet
+    var array = new Object[values.length];
+    for (int i = 0; i < values.length; i++) {
+      array[i] = values[i];
+    }
+    return wrap(array, array.length);
+  }
+
+  public static <A> Chunk<A> ofAll(Iterable<? extends A> values) {
+    requireNonNull(values);
+    if (values instanceof Chunk) {
+      return (Chunk<A>) values;
+    }
+    var array = Array.ofAll(values).toJavaArray();
+    return wrap(array, array.length);
+  }
+
+  public static Chunk<Integer> ofInts(int... values) {
+    return values.length == 0 ? empty() : new IntChunk(values.clone(), 0, values.length);
+  }
+
+  public static Chunk<Long> ofLongs(long... values) {
+    return values.length == 0 ? empty() : new LongChunk(values.clone(), 0, values.length);
+  }
+
+  public static Chunk<Double> ofDoubles(double... values) {
+    return values.length == 0 ? empty() : new DoubleChunk(values.clone(), 0, values.length);
+  }
+
+  public static Chunk<Byte> ofBytes(byte... values) {
+    return values.length == 0 ? empty() : new ByteChunk(values.clone(), 0, values.length);
+  }
+
+  static <A> Chunk<A> wrap(Object[] array, int length) {
+    return length == 0 ? empty() : new ObjectChunk<>(array, 0, length);
+  }
+
+  static Chunk<Integer> wrap(int[] array, int length) {
+    return length == 0 ? empty() : new IntChunk(array, 0, length);
+  }
+
+  /*
+   * Applies a fused stage of maps and filters in one pass, a filtered element is returned as SKIP.
+   */
+  <B> Chunk<B> transform(Function1<Object, Object> stage, Object skip) {
+    var source = flat();
+    var result = new Object[source.size()];
+    int size = 0;
+    for (int i = 0; i < result.length; i++) {
+      var value = stage.apply(source.get(i));
+      if (value != skip) {
+        result[size++] = value;
+      }
+    }
+    return wrap(result, size);
+  }
+
+  // the array backed chunk with the same elements
+  abstract Chunk<A> flat();
+
+  abstract Chunk<A> view(int offset, int length);
+
+  // copies the elements [from, from + length) to an array of the same kind, or to an Object[]
+  abstract void copyInto(int from, int length, Object target, int position);
+
+  abstract Chunk<A> select(int[] indexes, int count);
+
+  private static final class ObjectChunk<A> extends Chunk<A> {
+
+    private final Object[] array;
+    private final int offset;
+    private final int length;
+
+    private ObjectChunk(Object[] array, int offset, int length) {
+      super(OBJECT);
+      this.array = array;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    public A get(int index) {
+      return (A) array[offset + checkIndex(index, length)];
+    }
+
+    @Override
+    Chunk<A> flat() {
+      return this;
+    }
+
+    @Override
+    Chunk<A> view(int offset, int length) {
+      return new ObjectChunk<>(array, this.offset + offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      System.arraycopy(array, offset + from, target, position, length);
+    }
+
+    @Override
+    Chunk<A> select(int[] indexes, int count) {
+      if (count == length) {
+        return this;
+      }
+      var result = new Object[count];
+      for (int i = 0; i < count; i++) {
+        result[i] = array[offset + indexes[i]];
+      }
+      return wrap(result, count);
+    }
+  }
+
+  private static final class IntChunk extends Chunk<Integer> {
+
+    private final int[] array;
+    private final int offset;
+    private final int length;
+
+    private IntChunk(int[] array, int offset, int length) {
+      super(INT);
+      this.array = array;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    public Integer get(int index) {
+      return getInt(index);
+    }
+
+    @Override
+    public int getInt(int index) {
+      return array[offset + checkIndex(index, length)];
+    }
+
+    @Override
+    public long getLong(int index) {
+      return getInt(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return getInt(index);
+    }
+
+    @Override
+    Chunk<Integer> flat() {
+      return this;
+    }
+
+    @Override
+    Chunk<Integer> view(int offset, int length) {
+      return new IntChunk(array, this.offset + offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      if (target instanceof int[]) {
+        System.arraycopy(array, offset + from, target, position, length);
+      } else {
+        var objects = (Object[]) target;
+        for (int i = 0; i < length; i++) {
+          objects[position + i] = array[offset + from + i];
+        }
+      }
+    }
+
+    @Override
+    Chunk<Integer> select(int[] indexes, int count) {
+      if (count == length) {
+        return this;
+      }
+      var result = new int[count];
+      for (int i = 0; i < count; i++) {
+        result[i] = array[offset + indexes[i]];
+      }
+      return wrap(result, count);
+    }
+  }
+
+  private static final class LongChunk extends Chunk<Long> {
+
+    private final long[] array;
+    private final int offset;
+    private final int length;
+
+    private LongChunk(long[] array, int offset, int length) {
+      super(LONG);
+      this.array = array;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    public Long get(int index) {
+      return getLong(index);
+    }
+
+    @Override
+    public long getLong(int index) {
+      return array[offset + checkIndex(index, length)];
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return getLong(index);
+    }
+
+    @Override
+    Chunk<Long> flat() {
+      return this;
+    }
+
+    @Override
+    Chunk<Long> view(int offset, int length) {
+      return new LongChunk(array, this.offset + offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      if (target instanceof long[]) {
+        System.arraycopy(array, offset + from, target, position, length);
+      } else {
+        var objects = (Object[]) target;
+        for (int i = 0; i < length; i++) {
+          objects[position + i] = array[offset + from + i];
+        }
+      }
+    }
+
+    @Override
+    Chunk<Long> select(int[] indexes, int count) {
+      if (count == length) {
+        return this;
+      }
+      var result = new long[count];
+      for (int i = 0; i < count; i++) {
+        result[i] = array[offset + indexes[i]];
+      }
+      return count == 0 ? empty() : new LongChunk(result, 0, count);
+    }
+  }
+
+  private static final class DoubleChunk extends Chunk<Double> {
+
+    private final double[] array;
+    private final int offset;
+    private final int length;
+
+    private DoubleChunk(double[] array, int offset, int length) {
+      super(DOUBLE);
+      this.array = array;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    public Double get(int index) {
+      return getDouble(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return array[offset + checkIndex(index, length)];
+    }
+
+    @Override
+    Chunk<Double> flat() {
+      return this;
+    }
+
+    @Override
+    Chunk<Double> view(int offset, int length) {
+      return new DoubleChunk(array, this.offset + offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      if (target instanceof double[]) {
+        System.arraycopy(array, offset + from, target, position, length);
+      } else {
+        var objects = (Object[]) target;
+        for (int i = 0; i < length; i++) {
+          objects[position + i] = array[offset + from + i];
+        }
+      }
+    }
+
+    @Override
+    Chunk<Double> select(int[] indexes, int count) {
+      if (count == length) {
+        return this;
+      }
+      var result = new double[count];
+      for (int i = 0; i < count; i++) {
+        result[i] = array[offset + indexes[i]];
+      }
+      return count == 0 ? empty() : new DoubleChunk(result, 0, count);
+    }
+  }
+
+  private static final class ByteChunk extends Chunk<Byte> {
+
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+
+    private ByteChunk(byte[] array, int offset, int length) {
+      super(BYTE);
+      this.array = array;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    public Byte get(int index) {
+      return getByte(index);
+    }
+
+    @Override
+    public byte getByte(int index) {
+      return array[offset + checkIndex(index, length)];
+    }
+
+    @Override
+    public int getInt(int index) {
+      return getByte(index);
+    }
+
+    @Override
+    public long getLong(int index) {
+      return getByte(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return getByte(index);
+    }
+
+    @Override
+    Chunk<Byte> flat() {
+      return this;
+    }
+
+    @Override
+    Chunk<Byte> view(int offset, int length) {
+      return new ByteChunk(array, this.offset + offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      if (target instanceof byte[]) {
+        System.arraycopy(array, offset + from, target, position, length);
+      } else {
+        var objects = (Object[]) target;
+        for (int i = 0; i < length; i++) {
+          objects[position + i] = array[offset + from + i];
+        }
+      }
+    }
+
+    @Override
+    Chunk<Byte> select(int[] indexes, int count) {
+      if (count == length) {
+        return this;
+      }
+      var result = new byte[count];
+      for (int i = 0; i < count; i++) {
+        result[i] = array[offset + indexes[i]];
+      }
+      return count == 0 ? empty() : new ByteChunk(result, 0, count);
+    }
+  }
+
+  /*
+   * Base of the views, the elements are read from the flat copy made on first access.
+   */
+  private abstract static class View<A> extends Chunk<A> {
+
+    private Chunk<A> flat;
+
+    private View(int kind) {
+      super(kind);
+    }
+
+    @Override
+    public A get(int index) {
+      return flat().get(index);
+    }
+
+    @Override
+    public int getInt(int index) {
+      return flat().getInt(index);
+    }
+
+    @Override
+    public long getLong(int index) {
+      return flat().getLong(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return flat().getDouble(index);
+    }
+
+    @Override
+    public byte getByte(int index) {
+      return flat().getByte(index);
+    }
+
+    @Override
+    Chunk<A> flat() {
+      var current = flat;
+      if (current == null) {
+        current = copy();
+        flat = current;
+      }
+      return current;
+    }
+
+    @Override
+    Chunk<A> view(int offset, int length) {
+      return new Slice<>(this, offset, length);
+    }
+
+    @Override
+    Chunk<A> select(int[] indexes, int count) {
+      return flat().select(indexes, count);
+    }
+
+    private Chunk<A> copy() {
+      var length = size();
+      switch (super.kind) {
+        case INT:
+          var ints = new int[length];
+          copyInto(0, length, ints, 0);
+          return (Chunk<A>) new IntChunk(ints, 0, length);
+        case LONG:
+          var longs = new long[length];
+          copyInto(0, length, longs, 0);
+          return (Chunk<A>) new LongChunk(longs, 0, length);
+        case DOUBLE:
+          var doubles = new double[length];
+          copyInto(0, length, doubles, 0);
+          return (Chunk<A>) new DoubleChunk(doubles, 0, length);
+        case BYTE:
+          var bytes = new byte[length];
+          copyInto(0, length, bytes, 0);
+          return (Chunk<A>) new ByteChunk(bytes, 0, length);
+        default:
+          var objects = new Object[length];
+          copyInto(0, length, objects, 0);
+          return new ObjectChunk<>(objects, 0, length);
+      }
+    }
+  }
+
+  private static final class Concat<A> extends View<A> {
+
+    private final Chunk<A> left;
+    private final Chunk<A> right;
+    private final int length;
+    private final int depth;
+
+    private Concat(Chunk<A> left, Chunk<A> right) {
+      super(((Chunk<?>) left).kind == ((Chunk<?>) right).kind ? ((Chunk<?>) left).kind : OBJECT);
+      this.left = left;
+      this.right = right;
+      this.length = left.size() + right.size();
+      this.depth = Math.max(depth(left), depth(right)) + 1;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    Chunk<A> view(int offset, int length) {
+      var split = left.size();
+      if (offset + length <= split) {
+        return left.slice(offset, offset + length);
+      }
+      if (offset >= split) {
+        return right.slice(offset - split, offset - split + length);
+      }
+      return super.view(offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      var split = left.size();
+      if (from < split) {
+        var n = Math.min(length, split - from);
+        left.copyInto(from, n, target, position);
+        from += n;
+        length -= n;
+        position += n;
+      }
+      if (length > 0) {
+        right.copyInto(from - split, length, target, position);
+      }
+    }
+
+    private static int depth(Chunk<?> chunk) {
+      return chunk instanceof Concat ? ((Concat<?>) chunk).depth : 0;
+    }
+  }
+
+  private static final class Slice<A> extends View<A> {
+
+    private final Chunk<A> chunk;
+    private final int offset;
+    private final int length;
+
+    private Slice(Chunk<A> chunk, int offset, int length) {
+      super(((Chunk<?>) chunk).kind);
+      this.chunk = chunk;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int size() {
+      return length;
+    }
+
+    @Override
+    Chunk<A> view(int offset, int length) {
+      return chunk.view(this.offset + offset, length);
+    }
+
+    @Override
+    void copyInto(int from, int length, Object target, int position) {
+      chunk.copyInto(offset + from, length, target, position);
+    }
+  }
+
+  private static int checkIndex(int index, int length) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("index " + index + " out of " + length);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Counter for hot paths: the updates go to striped cells, so concurrent increments do not retry
+ * on the same cache line, and the cells are only added up when the value is read.
+ */
+@SuppressWarnings("unchecked")
+public final class CounterRef {
+
+  private final LongAdder value = new LongAdder();
+
+  private final ZIO<?, ?, Unit> increment = ZIO.task(() -> { value.increment(); return unit(); });
+  private final ZIO<?, ?, Unit> decrement = ZIO.task(() -> { value.decrement(); return unit(); });
+  private final ZIO<?, ?, Long> get = ZIO.task(value::sum);
+
+  private CounterRef(long initial) {
+    value.add(initial);
+  }
+
+  public <R, E> ZIO<R, E, Unit> increment() {
+    return (ZIO<R, E, Unit>) increment;
+  }
+
+  public <R, E> ZIO<R, E, Unit> decrement() {
+    return (ZIO<R, E, Unit>) decrement;
+  }
+
+  public <R, E> ZIO<R, E, Unit> add(long delta) {
+    return ZIO.task(() -> { value.add(delta); return unit(); });
+  }
+
+  public <R, E> ZIO<R, E, Long> get() {
+    return (ZIO<R, E, Long>) get;
+  }
+
+  public <R, E> ZIO<R, E, Long> getAndReset() {
+    return ZIO.task(value::sumThenReset);
+  }
+
+  public static CounterRef of(long initial) {
+    return new CounterRef(initial);
+  }
+
+  @Override
+  public String toString() {
+    return "CounterRef(" + value.sum() + ")";
+  }
+}
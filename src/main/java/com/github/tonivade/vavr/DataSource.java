@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import io.vavr.Function1;
+import io.vavr.collection.Map;
+import io.vavr.collection.Set;
+
+public interface DataSource<R, E, K, V> {
+
+  ZIO<R, E, Map<K, V>> getAll(Set<K> keys);
+
+  default int batchSize() {
+    return Integer.MAX_VALUE;
+  }
+
+  static <R, E, K, V> DataSource<R, E, K, V> of(Function1<Set<K>, ZIO<R, E, Map<K, V>>> getAll) {
+    requireNonNull(getAll);
+    return getAll::apply;
+  }
+
+  static <R, E, K, V> DataSource<R, E, K, V> of(int batchSize, Function1<Set<K>, ZIO<R, E, Map<K, V>>> getAll) {
+    requireNonNull(getAll);
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batch size should be greater than zero: " + batchSize);
+    }
+    return new DataSource<>() {
+      @Override
+      public ZIO<R, E, Map<K, V>> getAll(Set<K> keys) {
+        return getAll.apply(keys);
+      }
+
+      @Override
+      public int batchSize() {
+        return batchSize;
+      }
+    };
+  }
+}
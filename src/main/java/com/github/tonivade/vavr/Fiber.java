@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+public interface Fiber<E, A> {
+
+  <R> ZIO<R, E, A> join();
+
+  <R, F> ZIO<R, F, Try<Either<E, A>>> await();
+
+  <R, F> ZIO<R, F, Try<Either<E, A>>> interrupt();
+}
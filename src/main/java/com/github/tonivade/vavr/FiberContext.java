@@ -0,0 +1,716 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * A fiber is a green thread: the state of the run loop (current effect, result and continuation
+ * stack) lives here, so the loop can stop at any async boundary and continue later in any thread
+ * of the executor. It also yields the thread every MAX_OPS steps to be fair with other fibers.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+final class FiberContext<R, E, A> implements Fiber<E, A>, Runnable {
+
+  static final int MAX_OPS = Integer.getInteger("vavr.zio.fiber.maxOps", 1024);
+
+  private static final Object[] NO_LOCALS = new Object[0];
+  // up to this many refs and values a read compares the refs one by one instead of searching them
+  private static final int SCAN_LOCALS = 16;
+
+  private static final AtomicReferenceFieldUpdater<FiberContext, Object> STATE =
+      AtomicReferenceFieldUpdater.newUpdater(FiberContext.class, Object.class, "state");
+
+  private final R env;
+  private final Executor executor;
+  private final Supervisor supervisor;
+
+  private boolean blocking;
+  private ZIONode current;
+  private Object value;
+  private boolean failed;
+  private ZIONode[] stack;
+  private int top;
+  // pairs of fiber ref and value, only the refs set in this fiber, sorted by the id of the ref,
+  // never modified once shared
+  private Object[] locals;
+  // the locals inherited from the parent, to know which ones were changed by this fiber
+  private final Object[] forked;
+
+  // either an Observer (or null) while running, or the final Try when done
+  private volatile Object state;
+  private volatile boolean interrupted;
+  private volatile Resume pending;
+  // depth of uninterruptible regions, an interruption is delayed until it is back to zero
+  private volatile int masked;
+  // a defect or an interruption, set while the stack is unwound
+  private Throwable cause;
+
+  FiberContext(R env, Executor executor, ZIO<R, E, A> effect) {
+    this(env, executor, effect, ZIORuntime.supervisor, NO_LOCALS);
+  }
+
+  private FiberContext(R env, Executor executor, ZIO<R, E, A> effect, Supervisor supervisor, Object[] locals) {
+    this.env = env;
+    this.executor = requireNonNull(executor);
+    this.current = (ZIONode) requireNonNull(effect);
+    this.supervisor = supervisor;
+    this.locals = locals;
+    this.forked = locals;
+    if (supervisor != null) {
+      supervisor.onStart(this);
+    }
+  }
+
+  /*
+   * The fiber refs changed by the joined fiber are merged back into the fiber that joins it,
+   * unless the joined fiber died.
+   */
+  @Override
+  public <T> ZIO<T, E, A> join() {
+    ZIO<T, E, A> result = new ZIO.Async<>((env, callback) -> {
+      observe(callback);
+      return ZIORuntime.NOOP;
+    });
+    ZIO<T, E, Unit> inherit = new ZIO.Local<>(fiber -> fiber.inheritLocals(this));
+    return result.foldM(error -> inherit.andThen(ZIO.failure(error)), value -> inherit.andThen(ZIO.pure(value)));
+  }
+
+  @Override
+  public <T, F> ZIO<T, F, Try<Either<E, A>>> await() {
+    return new ZIO.Async<>((env, callback) -> {
+      observe(result -> callback.accept(Try.success(Either.right(result))));
+      return ZIORuntime.NOOP;
+    });
+  }
+
+  @Override
+  public <T, F> ZIO<T, F, Try<Either<E, A>>> interrupt() {
+    return ZIO.<T, F, Unit>task(() -> { interruptNow(); return Unit.unit(); }).andThen(await());
+  }
+
+  @Override
+  public void run() {
+    var steps = runLoop(MAX_OPS);
+    if (supervisor != null) {
+      supervisor.onYield(this, steps);
+    }
+  }
+
+  void start() {
+    executor.execute(this);
+  }
+
+  void runInline() {
+    var steps = runLoop(Integer.MAX_VALUE);
+    if (supervisor != null) {
+      supervisor.onYield(this, steps);
+    }
+  }
+
+  Try<Either<E, A>> runSync() {
+    runInline();
+    var result = state;
+    if (result instanceof Try) {
+      return (Try<Either<E, A>>) result;
+    }
+    var latch = new CompletableFuture<Try<Either<E, A>>>();
+    observe(latch::complete);
+    return latch.join();
+  }
+
+  void observe(Consumer<? super Try<Either<E, A>>> callback) {
+    while (true) {
+      var current = state;
+      if (current instanceof Try) {
+        callback.accept((Try<Either<E, A>>) current);
+        return;
+      }
+      if (STATE.compareAndSet(this, current, new Observer(callback, (Observer) current))) {
+        return;
+      }
+    }
+  }
+
+  void interruptNow() {
+    interrupted = true;
+    var resume = pending;
+    if (resume != null && masked == 0 && resume.compareAndSet(Resume.SUSPENDED, Resume.RESUMED)) {
+      resume.cancel();
+      currentExecutor().execute(this);
+    }
+  }
+
+  boolean isDone() {
+    return state instanceof Try;
+  }
+
+  /*
+   * A fiber that runs an effect for this one, with another environment, in the same executor and
+   * with the same supervisor and fiber refs; it stays in the blocking executor if this fiber is
+   * there. Joining it merges back the fiber refs it changed.
+   */
+  <T, F, B> FiberContext<T, F, B> child(T env, ZIO<T, F, B> effect) {
+    var child = new FiberContext<>(env, executor, effect, supervisor, forkLocals(locals));
+    child.blocking = blocking;
+    return child;
+  }
+
+  <T> T getLocal(FiberRef<T> ref) {
+    var current = locals;
+    if (current.length <= SCAN_LOCALS) {
+      for (int i = 0; i < current.length; i += 2) {
+        if (current[i] == ref) {
+          return (T) current[i + 1];
+        }
+      }
+      return ref.initial;
+    }
+    var index = find(current, ref.id);
+    return index >= 0 ? (T) current[index + 1] : ref.initial;
+  }
+
+  Unit setLocal(FiberRef<?> ref, Object value) {
+    locals = with(locals, ref, value);
+    return Unit.unit();
+  }
+
+  private int runLoop(int maxOps) {
+    ZIONode current = this.current;
+    this.current = null;
+    int ops = 0;
+    var resume = pending;
+    if (resume != null) {
+      pending = null;
+      if (supervisor != null) {
+        supervisor.onResume(this);
+      }
+      if (resume.result != null) {
+        if (resume.result.isFailure()) {
+          cause = resume.result.getCause();
+        } else {
+          setEither(resume.result.get());
+        }
+      }
+    }
+    while (true) {
+      try {
+        if (interrupted && masked == 0 && cause == null) {
+          cause = new CancellationException("fiber interrupted");
+          current = null;
+        }
+        if (current == null) {
+          if (top == 0) {
+            complete(cause != null ? Try.failure(cause)
+                : Try.success(failed ? Either.left((E) value) : Either.right((A) value)));
+            return ops;
+          }
+          var frame = stack[--top];
+          stack[top] = null;
+          switch (frame.tag) {
+            case ZIONode.MAP:
+              if (!failed && cause == null) {
+                value = ((ZIO.Map) frame).mapper.apply(value);
+              }
+              break;
+            case ZIONode.MAP_ERROR:
+              if (failed && cause == null) {
+                value = ((ZIO.MapError) frame).mapper.apply(value);
+              }
+              break;
+            case ZIONode.FLAT_MAP:
+              if (cause == null) {
+                var flatMapped = (ZIO.FlatMapped) frame;
+                current = (ZIONode) (failed ? flatMapped.nextError.apply(value) : flatMapped.next.apply(value));
+              }
+              break;
+            case ZIONode.FOLD:
+              if (cause == null) {
+                var foldM = (ZIO.FoldM) frame;
+                current = (ZIONode) (failed ? foldM.nextError.apply(value) : foldM.next.apply(value));
+              }
+              break;
+            case ZIONode.SWAP:
+              failed = !failed;
+              break;
+            case ZIONode.BLOCKING:
+              blocking = false;
+              executor.execute(this);
+              return ops;
+            case ZIONode.UNINTERRUPTIBLE:
+              masked--;
+              break;
+            case ZIONode.BRACKET_FRAME:
+              current = release((BracketFrame) frame);
+              break;
+            case ZIONode.RESTORE:
+              restore((Restore) frame);
+              break;
+            default:
+              throw new IllegalStateException("not supported: " + frame);
+          }
+        } else {
+          switch (current.tag) {
+            case ZIONode.PURE:
+              value = ((ZIO.Pure) current).value;
+              failed = false;
+              current = null;
+              break;
+            case ZIONode.FAILURE:
+              value = ((ZIO.Failure) current).error;
+              failed = true;
+              current = null;
+              break;
+            case ZIONode.MAP:
+              push(current);
+              current = (ZIONode) ((ZIO.Map) current).current;
+              break;
+            case ZIONode.MAP_ERROR:
+              push(current);
+              current = (ZIONode) ((ZIO.MapError) current).current;
+              break;
+            case ZIONode.FLAT_MAP:
+              push(current);
+              current = (ZIONode) ((ZIO.FlatMapped) current).current;
+              break;
+            case ZIONode.FOLD:
+              push(current);
+              current = (ZIONode) ((ZIO.FoldM) current).current;
+              break;
+            case ZIONode.SWAP:
+              push(current);
+              current = (ZIONode) ((ZIO.Swap) current).current;
+              break;
+            case ZIONode.ACCESS:
+              current = (ZIONode) ((ZIO.AccessM) current).function.apply(env);
+              break;
+            case ZIONode.TASK:
+              if (supervisor == null) {
+                setEither((Either) ((ZIO.Task) current).task.apply());
+              } else {
+                var start = System.nanoTime();
+                setEither((Either) ((ZIO.Task) current).task.apply());
+                supervisor.onTask(this, System.nanoTime() - start, failed);
+              }
+              current = null;
+              break;
+            case ZIONode.ATTEMP:
+              if (supervisor == null) {
+                attemp((ZIO.Attemp) current);
+              } else {
+                var start = System.nanoTime();
+                attemp((ZIO.Attemp) current);
+                supervisor.onTask(this, System.nanoTime() - start, failed);
+              }
+              current = null;
+              break;
+            case ZIONode.FORK:
+              fork((ZIO.Fork) current);
+              current = null;
+              break;
+            case ZIONode.BLOCKING:
+              if (!blocking) {
+                push(current);
+                blocking = true;
+                this.current = (ZIONode) ((ZIO.Blocking) current).current;
+                ZIORuntime.BLOCKING_EXECUTOR.execute(this);
+                return ops;
+              }
+              current = (ZIONode) ((ZIO.Blocking) current).current;
+              break;
+            case ZIONode.ASYNC:
+              var async = (ZIO.Async) current;
+              current = null;
+              if (suspend(async)) {
+                return ops;
+              }
+              break;
+            case ZIONode.UNINTERRUPTIBLE:
+              masked++;
+              push(current);
+              current = (ZIONode) ((ZIO.Uninterruptible) current).current;
+              break;
+            case ZIONode.LOCAL:
+              value = ((ZIO.Local) current).function.apply(this);
+              failed = false;
+              current = null;
+              break;
+            case ZIONode.GET_LOCAL:
+              value = getLocal(((ZIO.GetLocal) current).ref);
+              failed = false;
+              current = null;
+              break;
+            case ZIONode.BRACKET:
+              var bracket = (ZIO.Bracket) current;
+              masked++;
+              push(new BracketFrame(bracket));
+              current = (ZIONode) bracket.acquire;
+              break;
+            default:
+              throw new IllegalStateException("not supported: " + current);
+          }
+        }
+        if (++ops == maxOps) {
+          this.current = current;
+          var next = currentExecutor();
+          Fairness.runPending(next);
+          next.execute(this);
+          return ops;
+        }
+      } catch (Throwable error) {
+        if (error instanceof VirtualMachineError) {
+          complete(Try.failure(error));
+          throw (VirtualMachineError) error;
+        }
+        // a defect unwinds the stack like an interruption, running the pending finalizers
+        current = null;
+        if (cause == null) {
+          cause = error;
+        }
+      }
+    }
+  }
+
+  /*
+   * The acquire step of a bracket ends masked, so there is no window for an interruption between
+   * acquiring the resource and pushing the frame that releases it. The release runs masked too,
+   * and the restore frame brings back the outcome of the use step, or the cause of the unwinding.
+   */
+  private ZIONode release(BracketFrame frame) {
+    if (frame.resource == BracketFrame.ACQUIRING) {
+      masked--;
+      if (cause != null || failed) {
+        return null;
+      }
+      frame.resource = value;
+      push(frame);
+      return (ZIONode) frame.bracket.use.apply(value);
+    }
+    masked++;
+    push(new Restore(value, failed, cause));
+    cause = null;
+    return (ZIONode) frame.bracket.release.apply(frame.resource);
+  }
+
+  private void restore(Restore restore) {
+    masked--;
+    if (restore.cause != null) {
+      cause = restore.cause;
+    } else if (cause == null) {
+      value = restore.value;
+      failed = restore.failed;
+    }
+  }
+
+  private void attemp(ZIO.Attemp attemp) {
+    try {
+      value = attemp.current.apply();
+      failed = false;
+    } catch (Throwable error) {
+      value = ZIORuntime.nonFatal(error);
+      failed = true;
+    }
+  }
+
+  private void fork(ZIO.Fork fork) {
+    var child = new FiberContext(
+        env, fork.executor != null ? fork.executor : executor, fork.current, supervisor, forkLocals(locals));
+    child.start();
+    value = child;
+    failed = false;
+  }
+
+  /*
+   * The child shares the array of the parent, unless some ref transforms its value on fork.
+   */
+  private static Object[] forkLocals(Object[] locals) {
+    var result = locals;
+    for (int i = 0; i < locals.length; i += 2) {
+      var ref = (FiberRef) locals[i];
+      if (ref.fork != null) {
+        if (result == locals) {
+          result = locals.clone();
+        }
+        result[i + 1] = ref.fork.apply(locals[i + 1]);
+      }
+    }
+    return result;
+  }
+
+  private Unit inheritLocals(FiberContext<?, ?, ?> child) {
+    var changed = child.locals;
+    if (changed == child.forked || changed == locals) {
+      return Unit.unit();
+    }
+    var inherited = child.forked;
+    var result = locals;
+    for (int i = 0; i < changed.length; i += 2) {
+      var ref = (FiberRef) changed[i];
+      var before = find(inherited, ref.id);
+      if (before >= 0 && inherited[before + 1] == changed[i + 1]) {
+        continue;
+      }
+      var index = find(result, ref.id);
+      var current = index >= 0 ? result[index + 1] : ref.initial;
+      result = with(result, ref, ref.join.apply(current, changed[i + 1]));
+    }
+    locals = result;
+    return Unit.unit();
+  }
+
+  private static Object[] with(Object[] locals, FiberRef<?> ref, Object value) {
+    var index = find(locals, ref.id);
+    if (index >= 0) {
+      var result = locals.clone();
+      result[index + 1] = value;
+      return result;
+    }
+    index = -index - 1;
+    var result = new Object[locals.length + 2];
+    System.arraycopy(locals, 0, result, 0, index);
+    System.arraycopy(locals, index, result, index + 2, locals.length - index);
+    result[index] = ref;
+    result[index + 1] = value;
+    return result;
+  }
+
+  /*
+   * Binary search of the ref in the sorted pairs, the position of the ref if found, or else
+   * -(insertion position) - 1. A fiber usually holds a handful of refs, so it takes a few steps.
+   */
+  private static int find(Object[] locals, int id) {
+    int low = 0;
+    int high = (locals.length >> 1) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int other = ((FiberRef<?>) locals[middle << 1]).id;
+      if (other < id) {
+        low = middle + 1;
+      } else if (other > id) {
+        high = middle - 1;
+      } else {
+        return middle << 1;
+      }
+    }
+    return -(low << 1) - 1;
+  }
+
+  private boolean suspend(ZIO.Async async) {
+    var resume = new Resume(this);
+    pending = resume;
+    resume.canceler = (Runnable) async.register.apply(env, resume);
+    if (resume.compareAndSet(Resume.REGISTERING, Resume.SUSPENDED)) {
+      if (supervisor != null) {
+        supervisor.onSuspend(this);
+      }
+      if (interrupted && masked == 0 && resume.compareAndSet(Resume.SUSPENDED, Resume.RESUMED)) {
+        resume.cancel();
+        currentExecutor().execute(this);
+      }
+      return true;
+    }
+    pending = null;
+    setResult(resume.result);
+    return false;
+  }
+
+  private Executor currentExecutor() {
+    return blocking ? ZIORuntime.BLOCKING_EXECUTOR : executor;
+  }
+
+  private void setResult(Try<Either> result) {
+    if (result.isFailure()) {
+      ZIORuntime.sneakyThrow(result.getCause());
+    }
+    setEither(result.get());
+  }
+
+  private void setEither(Either either) {
+    failed = either.isLeft();
+    value = failed ? either.getLeft() : either.get();
+  }
+
+  private void push(ZIONode frame) {
+    if (stack == null) {
+      stack = new ZIONode[8];
+    } else if (top == stack.length) {
+      var copy = new ZIONode[top << 1];
+      System.arraycopy(stack, 0, copy, 0, top);
+      stack = copy;
+    }
+    stack[top++] = frame;
+  }
+
+  private void complete(Try<Either<E, A>> result) {
+    if (supervisor != null) {
+      supervisor.onEnd(this, result);
+    }
+    var observers = STATE.getAndSet(this, result);
+    for (var observer = (Observer) observers; observer != null; observer = observer.next) {
+      observer.callback.accept(result);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Fiber(" + (isDone() ? state : "running") + ")";
+  }
+
+  private static final class BracketFrame extends ZIONode {
+
+    private static final Object ACQUIRING = new Object();
+
+    private final ZIO.Bracket bracket;
+    private Object resource = ACQUIRING;
+
+    private BracketFrame(ZIO.Bracket bracket) {
+      super(ZIONode.BRACKET_FRAME);
+      this.bracket = bracket;
+    }
+
+    @Override
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final class Restore extends ZIONode {
+
+    private final Object value;
+    private final boolean failed;
+    private final Throwable cause;
+
+    private Restore(Object value, boolean failed, Throwable cause) {
+      super(ZIONode.RESTORE);
+      this.value = value;
+      this.failed = failed;
+      this.cause = cause;
+    }
+
+    @Override
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /*
+   * A fiber that yields in a worker of its fork join pool is pushed to the local queue of the
+   * worker, and the worker runs its local tasks before the ones submitted from other threads, like
+   * the fibers resumed by the timer, so a busy fiber could starve them. Before pushing the fiber,
+   * the worker runs one of the other pending tasks, submitted ones first, so the yield is fair
+   * even with a single worker. A task run this way that yields in turn is only pushed.
+   */
+  private static final class Fairness extends ForkJoinTask<Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<Boolean> RUNNING = new ThreadLocal<>();
+
+    private static void runPending(Executor executor) {
+      if (!(Thread.currentThread() instanceof ForkJoinWorkerThread) || getPool() != executor || RUNNING.get() != null) {
+        return;
+      }
+      var task = pollSubmission();
+      if (task == null) {
+        task = pollTask();
+      }
+      if (task != null) {
+        RUNNING.set(Boolean.TRUE);
+        try {
+          task.quietlyInvoke();
+        } catch (Throwable error) {
+          var thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+          if (error instanceof VirtualMachineError) {
+            throw (VirtualMachineError) error;
+          }
+        } finally {
+          RUNNING.remove();
+        }
+      }
+    }
+
+    @Override
+    public Void getRawResult() {
+      return null;
+    }
+
+    @Override
+    protected void setRawResult(Void value) {
+      // never run
+    }
+
+    @Override
+    protected boolean exec() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final class Observer {
+
+    private final Consumer callback;
+    private final Observer next;
+
+    private Observer(Consumer callback, Observer next) {
+      this.callback = callback;
+      this.next = next;
+    }
+  }
+
+  /*
+   * One shot callback for an async boundary. The callback may be called synchronously during the
+   * registration, then the loop continues in the same thread, or later from any thread, then the
+   * fiber is scheduled again in its executor. Only one of the callback and an interruption wins.
+   */
+  private static final class Resume extends AtomicInteger implements Consumer<Try<Either>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int REGISTERING = 0;
+    private static final int SUSPENDED = 1;
+    private static final int RESUMED = 2;
+
+    private static final AtomicReferenceFieldUpdater<Resume, Try> RESULT =
+        AtomicReferenceFieldUpdater.newUpdater(Resume.class, Try.class, "result");
+
+    private final FiberContext fiber;
+
+    private volatile Try<Either> result;
+    private volatile Runnable canceler;
+
+    private Resume(FiberContext fiber) {
+      this.fiber = fiber;
+    }
+
+    @Override
+    public void accept(Try<Either> value) {
+      if (!RESULT.compareAndSet(this, null, requireNonNull(value))) {
+        return;
+      }
+      if (!compareAndSet(REGISTERING, RESUMED) && compareAndSet(SUSPENDED, RESUMED)) {
+        fiber.currentExecutor().execute(fiber);
+      }
+    }
+
+    private void cancel() {
+      var current = canceler;
+      if (current != null) {
+        current.run();
+      }
+    }
+  }
+}
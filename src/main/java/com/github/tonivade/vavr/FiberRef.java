@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vavr.Function1;
+import io.vavr.Function2;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+
+/*
+ * A value local to a fiber, like a thread local that follows the fiber across executors. A fiber
+ * keeps only the refs set in it, in a copy on write array sorted by the id of the ref, and a
+ * forked fiber shares the array of its parent until one of them writes. A read is a node of its
+ * own in the run loop that scans the few refs of the fiber, or searches them when there are many. Creating refs doesn't grow the fibers that never use them. When a
+ * fiber is joined, the refs it changed are merged into the fiber that joins it.
+ */
+@SuppressWarnings("unchecked")
+public final class FiberRef<A> {
+
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+
+  final int id = COUNTER.getAndIncrement();
+  final A initial;
+  final Function1<A, A> fork;
+  final Function2<A, A, A> join;
+
+  private final ZIO<?, ?, A> get = new ZIO.GetLocal<>(this);
+
+  private FiberRef(A initial, Function1<A, A> fork, Function2<A, A, A> join) {
+    this.initial = initial;
+    this.fork = fork;
+    this.join = requireNonNull(join);
+  }
+
+  public <R, E> ZIO<R, E, A> get() {
+    return (ZIO<R, E, A>) get;
+  }
+
+  public <R, E> ZIO<R, E, Unit> set(A value) {
+    return new ZIO.Local<>(fiber -> fiber.setLocal(this, value));
+  }
+
+  public <R, E> ZIO<R, E, A> getAndSet(A value) {
+    return modify(current -> Tuple.of(current, value));
+  }
+
+  public <R, E> ZIO<R, E, A> updateAndGet(Function1<A, A> update) {
+    requireNonNull(update);
+    return modify(current -> { var next = update.apply(current); return Tuple.of(next, next); });
+  }
+
+  public <R, E> ZIO<R, E, A> getAndUpdate(Function1<A, A> update) {
+    requireNonNull(update);
+    return modify(current -> Tuple.of(current, update.apply(current)));
+  }
+
+  public <R, E, B> ZIO<R, E, B> modify(Function1<A, Tuple2<B, A>> change) {
+    requireNonNull(change);
+    return new ZIO.Local<>(fiber -> {
+      var result = change.apply((A) fiber.getLocal(this));
+      fiber.setLocal(this, result._2());
+      return result._1();
+    });
+  }
+
+  /*
+   * Runs the effect with the value, and restores the previous value when the effect ends.
+   */
+  public <R, E, B> ZIO<R, E, B> locally(A value, ZIO<R, E, B> effect) {
+    requireNonNull(effect);
+    return ZIO.bracket(getAndSet(value), ignore -> effect, this::set);
+  }
+
+  public static <A> FiberRef<A> of(A initial) {
+    return new FiberRef<>(initial, null, (parent, child) -> child);
+  }
+
+  public static <A> FiberRef<A> of(A initial, Function1<A, A> fork, Function2<A, A, A> join) {
+    return new FiberRef<>(initial, requireNonNull(fork), join);
+  }
+
+  @Override
+  public String toString() {
+    return "FiberRef(" + initial + ")";
+  }
+}
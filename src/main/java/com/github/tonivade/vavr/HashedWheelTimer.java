@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * A hashed wheel of buckets driven by one daemon thread: a pending timeout costs a small node in
+ * the bucket of its deadline, instead of a thread or an entry in a sorted heap. New timeouts are
+ * handed to the timer thread through a lock-free queue, so only the timer thread touches the
+ * wheel. Cancelled timeouts are unlinked the next time their bucket is visited. The thread parks
+ * without ticking while there is nothing pending, and the tasks run in the timer thread, so they
+ * should only hand off the work, like resuming a fiber.
+ */
+final class HashedWheelTimer {
+
+  static final long TICK_NANOS = Duration.ofMillis(Long.getLong("vavr.zio.timer.tickMillis", 10)).toNanos();
+  static final int WHEEL_SIZE = Integer.getInteger("vavr.zio.timer.wheelSize", 512);
+
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+
+  private final long tickNanos;
+  private final Timeout[] wheel;
+  private final int mask;
+
+  private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+  private final AtomicLong pending = new AtomicLong();
+
+  private volatile Thread worker;
+  private volatile boolean idle;
+  private volatile long startTime;
+  private long tick;
+
+  HashedWheelTimer(long tickNanos, int wheelSize) {
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("tick should be greater than zero: " + tickNanos);
+    }
+    if (wheelSize < 1 || wheelSize > 1 << 30) {
+      throw new IllegalArgumentException("invalid wheel size: " + wheelSize);
+    }
+    this.tickNanos = tickNanos;
+    this.wheel = new Timeout[powerOfTwo(wheelSize)];
+    this.mask = wheel.length - 1;
+  }
+
+  Timeout schedule(long delayNanos, Runnable task) {
+    requireNonNull(task);
+    start();
+    // saturated, so a very long delay does not overflow the deadline
+    var deadline = System.nanoTime() - startTime + Math.min(Math.max(delayNanos, 0), Long.MAX_VALUE >> 2);
+    var timeout = new Timeout(deadline, task);
+    pending.incrementAndGet();
+    incoming.add(timeout);
+    if (idle) {
+      LockSupport.unpark(worker);
+    }
+    return timeout;
+  }
+
+  long pending() {
+    return pending.get();
+  }
+
+  static long toNanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+  }
+
+  private void start() {
+    if (worker == null) {
+      synchronized (this) {
+        if (worker == null) {
+          startTime = System.nanoTime();
+          var thread = new Thread(this::run, "zio-timer-" + COUNTER.incrementAndGet());
+          thread.setDaemon(true);
+          thread.start();
+          worker = thread;
+        }
+      }
+    }
+  }
+
+  private static int powerOfTwo(int size) {
+    int result = 1;
+    while (result < size) {
+      result <<= 1;
+    }
+    return result;
+  }
+
+  private void run() {
+    while (true) {
+      var deadline = waitForNextTick();
+      transferTimeouts();
+      expireTimeouts((int) (tick & mask), deadline);
+      tick++;
+    }
+  }
+
+  private long waitForNextTick() {
+    if (pending.get() == 0) {
+      idle = true;
+      while (pending.get() == 0) {
+        LockSupport.park(this);
+      }
+      idle = false;
+      // every bucket is empty, the wheel can jump to the current time
+      tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+    }
+    var deadline = tickNanos * (tick + 1);
+    while (true) {
+      var current = System.nanoTime() - startTime;
+      if (current >= deadline) {
+        return current;
+      }
+      LockSupport.parkNanos(this, deadline - current);
+    }
+  }
+
+  private void transferTimeouts() {
+    for (var timeout = incoming.poll(); timeout != null; timeout = incoming.poll()) {
+      if (timeout.isCancelled()) {
+        pending.decrementAndGet();
+        continue;
+      }
+      var calculated = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (calculated - tick) / wheel.length;
+      var index = (int) (Math.max(calculated, tick) & mask);
+      timeout.next = wheel[index];
+      wheel[index] = timeout;
+    }
+  }
+
+  private void expireTimeouts(int index, long deadline) {
+    Timeout previous = null;
+    var timeout = wheel[index];
+    while (timeout != null) {
+      var next = timeout.next;
+      var remove = timeout.isCancelled();
+      if (!remove && timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+        remove = true;
+        timeout.expire();
+      } else if (!remove) {
+        timeout.remainingRounds--;
+      }
+      if (remove) {
+        timeout.next = null;
+        pending.decrementAndGet();
+        if (previous == null) {
+          wheel[index] = next;
+        } else {
+          previous.next = next;
+        }
+      } else {
+        previous = timeout;
+      }
+      timeout = next;
+    }
+  }
+
+  static final class Timeout extends AtomicInteger {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int WAITING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long deadline;
+    private final transient Runnable task;
+
+    private transient long remainingRounds;
+    private transient Timeout next;
+
+    private Timeout(long deadline, Runnable task) {
+      this.deadline = deadline;
+      this.task = task;
+    }
+
+    boolean cancel() {
+      return compareAndSet(WAITING, CANCELLED);
+    }
+
+    boolean isCancelled() {
+      return get() == CANCELLED;
+    }
+
+    private void expire() {
+      if (compareAndSet(WAITING, EXPIRED)) {
+        try {
+          task.run();
+        } catch (Throwable error) {
+          var thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+          if (error instanceof VirtualMachineError) {
+            throw (VirtualMachineError) error;
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Log-linear buckets in the style of HdrHistogram: exact below 64, and then every power of two is
+ * split in 32 buckets, so any value is recorded with an error below 1/32 in less than 2K counters.
+ * Recording is an atomic increment of one counter, without locks or allocation.
+ */
+public final class Histogram {
+
+  private static final int SUB_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int HALF = SUB_BUCKETS >> 1;
+  private static final int SIZE = SUB_BUCKETS + (63 - SUB_BITS) * HALF;
+
+  private final AtomicLongArray counts = new AtomicLongArray(SIZE);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("negative value: " + value);
+    }
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    var current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  public double mean() {
+    var total = count.sum();
+    return total == 0 ? 0 : (double) sum.sum() / total;
+  }
+
+  // the highest value equivalent to the value at the percentile, between 0 and 100
+  public long percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("invalid percentile: " + percentile);
+    }
+    var total = count.sum();
+    if (total == 0) {
+      return 0;
+    }
+    var target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long accumulated = 0;
+    for (int i = 0; i < SIZE; i++) {
+      accumulated += counts.get(i);
+      if (accumulated >= target) {
+        return Math.min(highestEquivalent(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  @Override
+  public String toString() {
+    return "Histogram(count=" + count() + ", mean=" + mean() + ", p50=" + percentile(50)
+        + ", p99=" + percentile(99) + ", max=" + max() + ")";
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    var msb = 63 - Long.numberOfLeadingZeros(value);
+    var mantissa = (int) (value >>> (msb - SUB_BITS + 1));
+    return SUB_BUCKETS + (msb - SUB_BITS) * HALF + mantissa - HALF;
+  }
+
+  static long highestEquivalent(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    var offset = index - SUB_BUCKETS;
+    var shift = offset / HALF + 1;
+    var mantissa = (long) (offset % HALF + HALF);
+    return (mantissa << shift) + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/*
+ * A value that is set only once. Callbacks registered before that are kept in a lock-free linked
+ * stack and called by the thread that sets the value, later callbacks are called right away.
+ * A cancelled callback is only marked as dead, because a node can't be unlinked from the middle
+ * of the stack with a CAS on its head, and once dead nodes are more than half of the stack it is
+ * copied without them.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+final class OneShot<T> {
+
+  private static final AtomicReferenceFieldUpdater<OneShot, Object> STATE =
+      AtomicReferenceFieldUpdater.newUpdater(OneShot.class, Object.class, "state");
+  private static final AtomicIntegerFieldUpdater<OneShot> CANCELLED =
+      AtomicIntegerFieldUpdater.newUpdater(OneShot.class, "cancelled");
+
+  // either a Waiter (or null) while empty, or Done with the value
+  private volatile Object state;
+  // dead waiters still in the stack
+  private volatile int cancelled;
+
+  boolean complete(T value) {
+    var done = new Done(value);
+    while (true) {
+      var current = state;
+      if (current instanceof Done) {
+        return false;
+      }
+      if (STATE.compareAndSet(this, current, done)) {
+        for (var waiter = (Waiter) current; waiter != null; waiter = waiter.next) {
+          if (!waiter.origin.cancelled) {
+            waiter.callback.accept(value);
+          }
+        }
+        return true;
+      }
+    }
+  }
+
+  /*
+   * Returns the canceler of the callback, that won't be called after that.
+   */
+  Runnable onComplete(Consumer<? super T> callback) {
+    requireNonNull(callback);
+    while (true) {
+      var current = state;
+      if (current instanceof Done) {
+        callback.accept((T) ((Done) current).value);
+        return ZIORuntime.NOOP;
+      }
+      var waiter = new Waiter(callback, (Waiter) current);
+      if (STATE.compareAndSet(this, current, waiter)) {
+        return () -> cancel(waiter);
+      }
+    }
+  }
+
+  boolean isDone() {
+    return state instanceof Done;
+  }
+
+  // size of the stack of callbacks, the dead ones included
+  int waiters() {
+    var current = state;
+    return current instanceof Waiter ? ((Waiter) current).size : 0;
+  }
+
+  private void cancel(Waiter waiter) {
+    if (waiter.cancelled) {
+      return;
+    }
+    waiter.cancelled = true;
+    CANCELLED.incrementAndGet(this);
+    while (true) {
+      var current = state;
+      if (!(current instanceof Waiter) || cancelled * 2 <= ((Waiter) current).size) {
+        return;
+      }
+      var dead = 0;
+      Waiter alive = null;
+      for (var node = (Waiter) current; node != null; node = node.next) {
+        if (node.origin.cancelled) {
+          dead++;
+        } else {
+          alive = new Waiter(node.origin, alive);
+        }
+      }
+      // the copy is reversed, reverse it again to keep the order of the callbacks
+      Waiter copy = null;
+      for (var node = alive; node != null; node = node.next) {
+        copy = new Waiter(node.origin, copy);
+      }
+      if (STATE.compareAndSet(this, current, copy)) {
+        CANCELLED.addAndGet(this, -dead);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    var current = state;
+    return "OneShot(" + (current instanceof Done ? ((Done) current).value : "?") + ")";
+  }
+
+  private static final class Done {
+
+    private final Object value;
+
+    private Done(Object value) {
+      this.value = value;
+    }
+  }
+
+  private static final class Waiter {
+
+    private final Consumer callback;
+    private final Waiter next;
+    private final int size;
+    // the node returned to the canceler, copies of the stack share its mark
+    private final Waiter origin;
+    private volatile boolean cancelled;
+
+    private Waiter(Consumer callback, Waiter next) {
+      this.callback = callback;
+      this.next = next;
+      this.size = next == null ? 1 : next.size + 1;
+      this.origin = this;
+    }
+
+    private Waiter(Waiter origin, Waiter next) {
+      this.callback = origin.callback;
+      this.next = next;
+      this.size = next == null ? 1 : next.size + 1;
+      this.origin = origin;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.vavr.Function1;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * State of one execution of foreachParN: up to N worker fibers take the next pending item, run
+ * the effect and store the value in its slot of a pre-sized array. The first failure interrupts
+ * all the other workers. The workers are forked masked, as the acquire of a bracket, so an
+ * interruption can't leave some of them running, and the release waits for the workers to end
+ * before the result is returned.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+final class Parallel<R, E, A, B> {
+
+  private final Object[] items;
+  private final Object[] results;
+  private final Function1<A, ZIO<R, E, B>> mapper;
+  private final FiberContext[] workers;
+
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicInteger running;
+  private final AtomicBoolean done = new AtomicBoolean();
+
+  private Parallel(int parallelism, Object[] items, Function1<A, ZIO<R, E, B>> mapper) {
+    this.items = items;
+    this.results = new Object[items.length];
+    this.mapper = mapper;
+    this.workers = new FiberContext[Math.min(parallelism, items.length)];
+    this.running = new AtomicInteger(workers.length);
+  }
+
+  static <R, E, A, B> ZIO<R, E, Seq<B>> foreachParN(
+      int parallelism, Iterable<? extends A> items, Function1<A, ZIO<R, E, B>> mapper) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism should be greater than zero: " + parallelism);
+    }
+    var array = Array.ofAll(requireNonNull(items)).toJavaArray();
+    requireNonNull(mapper);
+    if (array.length == 0) {
+      return ZIO.pure(Array.empty());
+    }
+    return ZIO.<R, E, Parallel<R, E, A, B>>task(() -> new Parallel<>(parallelism, array, mapper))
+        .flatMap(Parallel::run);
+  }
+
+  private ZIO<R, E, Seq<B>> run() {
+    return ZIO.bracket(forkWorkers(0), ignore -> new ZIO.Async<>((env, callback) -> {
+      for (var worker : workers) {
+        worker.observe(result -> onComplete((Try<Either>) result, (Consumer) callback));
+      }
+      return this::cancel;
+    }), ignore -> stop());
+  }
+
+  private ZIO<R, E, Unit> forkWorkers(int index) {
+    if (index == workers.length) {
+      return ZIO.unit();
+    }
+    return worker().fork().flatMap(fiber -> {
+      workers[index] = (FiberContext) fiber;
+      return forkWorkers(index + 1);
+    });
+  }
+
+  private ZIO<R, E, Unit> worker() {
+    return ZIO.<R, E, Integer>task(next::getAndIncrement).flatMap(index -> {
+      if (index >= items.length || done.get()) {
+        return ZIO.unit();
+      }
+      return mapper.apply((A) items[index]).flatMap(value -> {
+        results[index] = value;
+        return worker();
+      });
+    });
+  }
+
+  private void onComplete(Try<Either> result, Consumer<Try<Either>> callback) {
+    if (result.isSuccess() && result.get().isRight()) {
+      if (running.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+        callback.accept(Try.success(Either.right(Array.of(results))));
+      }
+    } else if (done.compareAndSet(false, true)) {
+      interruptAll();
+      callback.accept(result);
+    }
+  }
+
+  private ZIO<R, E, Unit> stop() {
+    if (running.get() == 0) {
+      return ZIO.unit();
+    }
+    return ZIO.collectAll(Array.of(workers).map(worker -> (ZIO<R, E, Object>) worker.interrupt())).andThen(ZIO.unit());
+  }
+
+  private void cancel() {
+    done.set(true);
+    interruptAll();
+  }
+
+  private void interruptAll() {
+    for (var worker : workers) {
+      if (worker != null) {
+        worker.interruptNow();
+      }
+    }
+  }
+}
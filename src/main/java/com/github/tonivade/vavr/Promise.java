@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Consumer;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * A result that is set only once, by the first of succeed, fail or die. The fibers that await it
+ * are suspended, without holding any thread, in the lock-free stack of callbacks of a one shot,
+ * and resumed by the fiber that completes the promise. An interrupted fiber cancels its callback,
+ * so waiters that give up don't pile up in a promise that is never completed.
+ */
+public final class Promise<E, A> {
+
+  private final OneShot<Try<Either<E, A>>> result = new OneShot<>();
+
+  private Promise() { }
+
+  public <R> ZIO<R, E, A> await() {
+    return new ZIO.Async<>((env, callback) -> result.onComplete(callback));
+  }
+
+  public <R, F> ZIO<R, F, Boolean> succeed(A value) {
+    return ZIO.task(() -> result.complete(Try.success(Either.right(value))));
+  }
+
+  public <R, F> ZIO<R, F, Boolean> fail(E error) {
+    return ZIO.task(() -> result.complete(Try.success(Either.left(error))));
+  }
+
+  public <R, F> ZIO<R, F, Boolean> die(Throwable error) {
+    requireNonNull(error);
+    return ZIO.task(() -> result.complete(Try.failure(error)));
+  }
+
+  /*
+   * Runs the effect and completes the promise with its result, a failure of the effect included.
+   */
+  public <R, F> ZIO<R, F, Boolean> complete(ZIO<R, E, A> effect) {
+    requireNonNull(effect);
+    return effect.foldM(this::<R, F>fail, this::<R, F>succeed);
+  }
+
+  public <R, F> ZIO<R, F, Boolean> isDone() {
+    return ZIO.task(result::isDone);
+  }
+
+  public static <E, A> Promise<E, A> make() {
+    return new Promise<>();
+  }
+
+  boolean completeNow(Try<Either<E, A>> value) {
+    return result.complete(value);
+  }
+
+  Runnable onComplete(Consumer<? super Try<Either<E, A>>> callback) {
+    return result.onComplete(callback);
+  }
+
+  int waiters() {
+    return result.waiters();
+  }
+
+  @Override
+  public String toString() {
+    return "Promise(" + result + ")";
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+/*
+ * Effects driven by the shared timer. A sleeping fiber is only a timeout in the wheel, and the
+ * canceler removes it when the fiber is interrupted. In a race, or a timeout, the first one to
+ * finish wins and the loser is interrupted right away, without waiting for it to stop. The forks
+ * are the acquire of a bracket, so an interruption of the caller can't leave them running.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+final class Racing {
+
+  private static final Try<Either> UNIT = Try.success(Either.right(Unit.unit()));
+  private static final Try<Either> NONE = Try.success(Either.right(Option.none()));
+
+  private Racing() {}
+
+  static <R, E> ZIO<R, E, Unit> sleep(Duration duration) {
+    var nanos = HashedWheelTimer.toNanos(requireNonNull(duration));
+    if (nanos <= 0) {
+      return ZIO.unit();
+    }
+    return new ZIO.Async<>((env, callback) ->
+        ZIORuntime.TIMER.schedule(nanos, () -> ((Consumer) callback).accept(UNIT))::cancel);
+  }
+
+  static <R, E, A> ZIO<R, E, Option<A>> timeout(ZIO<R, E, A> effect, Duration duration) {
+    var nanos = HashedWheelTimer.toNanos(requireNonNull(duration));
+    ZIO<R, E, FiberContext<R, E, A>> fork = effect.fork().map(fiber -> (FiberContext<R, E, A>) fiber);
+    return ZIO.bracket(fork, context -> new ZIO.Async<>((env, callback) -> {
+      var done = new AtomicBoolean();
+      var timeout = ZIORuntime.TIMER.schedule(nanos, () -> {
+        if (done.compareAndSet(false, true)) {
+          context.interruptNow();
+          ((Consumer) callback).accept(NONE);
+        }
+      });
+      context.observe(result -> {
+        if (done.compareAndSet(false, true)) {
+          timeout.cancel();
+          callback.accept(result.map(either -> either.map(Option::some)));
+        }
+      });
+      return () -> {
+        timeout.cancel();
+        context.interruptNow();
+      };
+    }), Racing::stop);
+  }
+
+  static <R, E, A> ZIO<R, E, A> race(ZIO<R, E, A> left, ZIO<R, E, A> right) {
+    requireNonNull(right);
+    ZIO<R, E, Tuple2<FiberContext<R, E, A>, FiberContext<R, E, A>>> forks = left.fork().flatMap(
+        first -> right.fork().map(second -> Tuple.of((FiberContext<R, E, A>) first, (FiberContext<R, E, A>) second)));
+    return ZIO.bracket(forks, both -> new ZIO.Async<>((env, callback) -> {
+      var one = both._1();
+      var other = both._2();
+      var done = new AtomicBoolean();
+      one.observe(result -> {
+        if (done.compareAndSet(false, true)) {
+          other.interruptNow();
+          callback.accept(result);
+        }
+      });
+      other.observe(result -> {
+        if (done.compareAndSet(false, true)) {
+          one.interruptNow();
+          callback.accept(result);
+        }
+      });
+      return () -> {
+        one.interruptNow();
+        other.interruptNow();
+      };
+    }), both -> Racing.<R, E>stop(both._1()).andThen(stop(both._2())));
+  }
+
+  private static <R, E> ZIO<R, E, Unit> stop(FiberContext<?, ?, ?> fiber) {
+    return ZIO.task(() -> {
+      fiber.interruptNow();
+      return Unit.unit();
+    });
+  }
+}
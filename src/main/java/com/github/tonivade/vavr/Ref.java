@@ -7,16 +7,23 @@ package com.github.tonivade.vavr;
 import static com.github.tonivade.vavr.Unit.unit;
 import static java.util.Objects.requireNonNull;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.vavr.Function1;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
 
 public final class Ref<A> {
 
+  private static final int MAX_BACKOFF = 1 << 10;
+
   private final AtomicReference<A> value;
+  private final boolean backoff;
 
-  private Ref(AtomicReference<A> value) {
+  private Ref(AtomicReference<A> value, boolean backoff) {
     this.value = requireNonNull(value);
+    this.backoff = backoff;
   }
 
   public <R, E> ZIO<R, E, A> get() {
@@ -36,15 +43,58 @@ public final class Ref<A> {
   }
 
   public <R, E> ZIO<R, E, A> updateAndGet(Function1<A, A> update) {
+    if (backoff) {
+      return modify(current -> { var next = update.apply(current); return Tuple.of(next, next); });
+    }
     return ZIO.task(() -> value.updateAndGet(update::apply));
   }
 
   public <R, E> ZIO<R, E, A> getAndUpdate(Function1<A, A> update) {
+    if (backoff) {
+      return modify(current -> Tuple.of(current, update.apply(current)));
+    }
     return ZIO.task(() -> value.getAndUpdate(update::apply));
   }
 
+  public <R, E, B> ZIO<R, E, B> modify(Function1<A, Tuple2<B, A>> change) {
+    requireNonNull(change);
+    return ZIO.task(() -> {
+      int limit = 1;
+      while (true) {
+        var current = value.get();
+        var result = change.apply(current);
+        if (value.compareAndSet(current, result._2())) {
+          return result._1();
+        }
+        if (backoff) {
+          limit = backoff(limit);
+        }
+      }
+    });
+  }
+
   public static <R, E, A> Ref<A> of(A value) {
-    return new Ref<>(new AtomicReference<>(value));
+    return new Ref<>(new AtomicReference<>(value), false);
+  }
+
+  /*
+   * The updates of this ref wait a random number of spins, doubled after every failed CAS, before
+   * trying again, so under heavy contention the threads stop re-running the update in lockstep.
+   */
+  public static <R, E, A> Ref<A> withBackoff(A value) {
+    return new Ref<>(new AtomicReference<>(value), true);
+  }
+
+  private static int backoff(int limit) {
+    var spins = ThreadLocalRandom.current().nextInt(limit) + 1;
+    for (int i = 0; i < spins; i++) {
+      Thread.onSpinWait();
+    }
+    if (limit == MAX_BACKOFF) {
+      Thread.yield();
+      return limit;
+    }
+    return limit << 1;
   }
 
   @Override
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Bounded lock-free MPMC queue by Dmitry Vyukov: every slot has a sequence number that says if it
+ * is ready to be written (seq == 2 * pos) or read (seq == 2 * pos + 1) in the current lap, producers
+ * and consumers only compete with a CAS on their own counter. The sequences are doubled so a
+ * full slot is not taken for a free one of the next lap when the capacity is one.
+ */
+@SuppressWarnings("unchecked")
+final class RingBuffer<A> {
+
+  private final int capacity;
+  private final Object[] buffer;
+  private final AtomicLongArray sequences;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+
+  RingBuffer(int capacity) {
+    this.capacity = capacity;
+    this.buffer = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, 2L * i);
+    }
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  boolean offer(A value) {
+    var position = tail.get();
+    while (true) {
+      var index = index(position);
+      var diff = sequences.get(index) - 2 * position;
+      if (diff == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          buffer[index] = value;
+          sequences.set(index, 2 * position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  A poll() {
+    var position = head.get();
+    while (true) {
+      var index = index(position);
+      var diff = sequences.get(index) - (2 * position + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          var value = (A) buffer[index];
+          buffer[index] = null;
+          sequences.set(index, 2 * (position + capacity));
+          return value;
+        }
+        position = head.get();
+      } else if (diff < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  boolean hasNext() {
+    var position = head.get();
+    return sequences.get(index(position)) - (2 * position + 1) >= 0;
+  }
+
+  boolean isFull() {
+    var position = tail.get();
+    return sequences.get(index(position)) - 2 * position < 0;
+  }
+
+  int size() {
+    var first = head.get();
+    var last = tail.get();
+    return (int) Math.max(0, Math.min(capacity, last - first));
+  }
+
+  private int index(long position) {
+    return (int) (position % capacity);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+/*
+ * A supervisor that aggregates the activity of all the fibers in striped counters, and keeps a
+ * latency histogram for each named effect.
+ */
+public final class RuntimeMetrics implements Supervisor {
+
+  private final LongAdder started = new LongAdder();
+  private final LongAdder succeeded = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder died = new LongAdder();
+  private final LongAdder interrupted = new LongAdder();
+  private final LongAdder suspensions = new LongAdder();
+  private final LongAdder resumes = new LongAdder();
+  private final LongAdder yields = new LongAdder();
+  private final LongAdder steps = new LongAdder();
+  private final LongAdder tasks = new LongAdder();
+  private final LongAdder taskFailures = new LongAdder();
+  private final LongAdder taskTime = new LongAdder();
+
+  private final ConcurrentHashMap<String, EffectMetrics> effects = new ConcurrentHashMap<>();
+
+  @Override
+  public void onStart(Fiber<?, ?> fiber) {
+    started.increment();
+  }
+
+  @Override
+  public void onEnd(Fiber<?, ?> fiber, Try<? extends Either<?, ?>> result) {
+    if (result.isFailure()) {
+      (result.getCause() instanceof CancellationException ? interrupted : died).increment();
+    } else {
+      (result.get().isRight() ? succeeded : failed).increment();
+    }
+  }
+
+  @Override
+  public void onSuspend(Fiber<?, ?> fiber) {
+    suspensions.increment();
+  }
+
+  @Override
+  public void onResume(Fiber<?, ?> fiber) {
+    resumes.increment();
+  }
+
+  @Override
+  public void onYield(Fiber<?, ?> fiber, int steps) {
+    yields.increment();
+    this.steps.add(steps);
+  }
+
+  @Override
+  public void onTask(Fiber<?, ?> fiber, long nanos, boolean failed) {
+    tasks.increment();
+    taskTime.add(nanos);
+    if (failed) {
+      taskFailures.increment();
+    }
+  }
+
+  @Override
+  public void onEffect(String name, long nanos, boolean failed) {
+    effects.computeIfAbsent(name, EffectMetrics::new).record(nanos, failed);
+  }
+
+  public long fibersStarted() {
+    return started.sum();
+  }
+
+  public long fibersSucceeded() {
+    return succeeded.sum();
+  }
+
+  public long fibersFailed() {
+    return failed.sum();
+  }
+
+  public long fibersDied() {
+    return died.sum();
+  }
+
+  public long fibersInterrupted() {
+    return interrupted.sum();
+  }
+
+  public long suspensions() {
+    return suspensions.sum();
+  }
+
+  public long resumes() {
+    return resumes.sum();
+  }
+
+  public long yields() {
+    return yields.sum();
+  }
+
+  public long steps() {
+    return steps.sum();
+  }
+
+  public long tasks() {
+    return tasks.sum();
+  }
+
+  public long taskFailures() {
+    return taskFailures.sum();
+  }
+
+  public long taskTime() {
+    return taskTime.sum();
+  }
+
+  public Option<EffectMetrics> effect(String name) {
+    return Option.of(effects.get(name));
+  }
+
+  @Override
+  public String toString() {
+    return "RuntimeMetrics(started=" + fibersStarted() + ", succeeded=" + fibersSucceeded()
+        + ", failed=" + fibersFailed() + ", died=" + fibersDied() + ", interrupted=" + fibersInterrupted()
+        + ", suspensions=" + suspensions() + ", yields=" + yields() + ", steps=" + steps()
+        + ", tasks=" + tasks() + ")";
+  }
+
+  public static final class EffectMetrics {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Histogram latency = new Histogram();
+
+    private EffectMetrics(String name) {
+      this.name = name;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    public long calls() {
+      return calls.sum();
+    }
+
+    public long failures() {
+      return failures.sum();
+    }
+
+    public double failureRate() {
+      var total = calls.sum();
+      return total == 0 ? 0.0 : (double) failures.sum() / total;
+    }
+
+    public Histogram latency() {
+      return latency;
+    }
+
+    @Override
+    public String toString() {
+      return "EffectMetrics(" + name + ", calls=" + calls() + ", failures=" + failures() + ", " + latency + ")";
+    }
+
+    private void record(long nanos, boolean failed) {
+      calls.increment();
+      if (failed) {
+        failures.increment();
+      }
+      latency.record(nanos);
+    }
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import io.vavr.Function1;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * Optimistic transactions in the style of TL2: every TRef keeps the version of the global clock
+ * when it was written, a transaction only reads values not newer than the clock when it started,
+ * and the commit locks the written refs, checks that nothing read has changed, and publishes the
+ * new values with a new version. A conflict runs the transaction again; a retry suspends the
+ * fiber until one of the refs that were read is written. The body is a tree of steps run by a
+ * loop with its own stack, like the fibers, so long chains of flatMap don't grow the Java stack.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public final class STM<E, A> {
+
+  private static final AtomicLong CLOCK = new AtomicLong();
+
+  private static final ControlFlow CONFLICT = new ControlFlow();
+  private static final ControlFlow RETRY = new ControlFlow();
+
+  private static final int STEP = 0;
+  private static final int MAP = 1;
+  private static final int FLAT_MAP = 2;
+  private static final int MAP_ERROR = 3;
+
+  private final int tag;
+  // the step of a leaf, or the function of a node applied to the result of its source
+  private final Function1 function;
+  private final STM<E, ?> source;
+
+  private STM(int tag, Function1 function, STM<E, ?> source) {
+    this.tag = tag;
+    this.function = requireNonNull(function);
+    this.source = source;
+  }
+
+  public <B> STM<E, B> map(Function1<A, B> mapper) {
+    return new STM<>(MAP, mapper, this);
+  }
+
+  public <B> STM<E, B> flatMap(Function1<A, STM<E, B>> next) {
+    return new STM<>(FLAT_MAP, next, this);
+  }
+
+  public <B> STM<E, B> andThen(STM<E, B> next) {
+    return flatMap(ignore -> next);
+  }
+
+  public <F> STM<F, A> mapError(Function1<E, F> mapper) {
+    return new STM<>(MAP_ERROR, mapper, (STM) this);
+  }
+
+  public <R> ZIO<R, E, A> commit() {
+    return atomically(this);
+  }
+
+  public static <R, E, A> ZIO<R, E, A> atomically(STM<E, A> transaction) {
+    return ZIO.<R, E, Object>task(transaction::attempt).flatMap(result -> {
+      if (result instanceof Journal) {
+        return STM.<R, E>await((Journal) result).andThen(atomically(transaction));
+      }
+      return ZIO.fromEither((Either<E, A>) result);
+    });
+  }
+
+  public static <E, A> STM<E, A> succeed(A value) {
+    return of(journal -> Either.right(value));
+  }
+
+  public static <E, A> STM<E, A> fail(E error) {
+    return of(journal -> Either.left(error));
+  }
+
+  public static <E, A> STM<E, A> retry() {
+    return of(journal -> { throw RETRY; });
+  }
+
+  public static <E> STM<E, Unit> check(boolean condition) {
+    return condition ? succeed(unit()) : retry();
+  }
+
+  static <E, A> STM<E, A> of(Function1<Journal, Either<E, A>> step) {
+    return new STM<>(STEP, step, null);
+  }
+
+  // the result of the transaction, or the journal to wait for when it retries
+  private Object attempt() {
+    while (true) {
+      var journal = new Journal(CLOCK.get());
+      try {
+        var result = run(journal);
+        if (result.isLeft() || journal.commit()) {
+          return result;
+        }
+      } catch (ControlFlow signal) {
+        if (signal == RETRY) {
+          return journal;
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  private Either<E, A> run(Journal journal) {
+    STM[] stack = new STM[8];
+    int top = 0;
+    STM current = this;
+    while (true) {
+      while (current.tag != STEP) {
+        if (top == stack.length) {
+          stack = Arrays.copyOf(stack, top << 1);
+        }
+        stack[top++] = current;
+        current = current.source;
+      }
+      var result = (Either) current.function.apply(journal);
+      current = null;
+      while (current == null) {
+        if (top == 0) {
+          return result;
+        }
+        var frame = stack[--top];
+        stack[top] = null;
+        switch (frame.tag) {
+          case MAP:
+            if (result.isRight()) {
+              result = Either.right(frame.function.apply(result.get()));
+            }
+            break;
+          case MAP_ERROR:
+            if (result.isLeft()) {
+              result = Either.left(frame.function.apply(result.getLeft()));
+            }
+            break;
+          case FLAT_MAP:
+            if (result.isRight()) {
+              current = (STM) frame.function.apply(result.get());
+            }
+            break;
+          default:
+            throw new IllegalStateException("not supported: " + frame.tag);
+        }
+      }
+    }
+  }
+
+  private static <R, E> ZIO<R, E, Unit> await(Journal journal) {
+    return new ZIO.Async<>((env, callback) -> {
+      var waiter = new Waiter(journal, (Consumer) callback);
+      waiter.register();
+      return waiter::cancel;
+    });
+  }
+
+  static final class Journal {
+
+    private final long readVersion;
+    private final IdentityHashMap<TRef<?>, Entry> entries = new IdentityHashMap<>();
+
+    private Journal(long readVersion) {
+      this.readVersion = readVersion;
+    }
+
+    <A> A read(TRef<A> ref) {
+      return (A) entry(ref).value;
+    }
+
+    <A> void write(TRef<A> ref, A value) {
+      var entry = entry(ref);
+      entry.value = value;
+      entry.written = true;
+    }
+
+    private Entry entry(TRef<?> ref) {
+      var entry = entries.get(ref);
+      if (entry == null) {
+        var snapshot = ref.state.get();
+        if (snapshot.owner != null || snapshot.version > readVersion) {
+          throw CONFLICT;
+        }
+        entry = new Entry(ref, snapshot);
+        entries.put(ref, entry);
+      }
+      return entry;
+    }
+
+    private boolean commit() {
+      var writes = new ArrayList<Entry>();
+      for (var entry : entries.values()) {
+        if (entry.written) {
+          writes.add(entry);
+        }
+      }
+      if (writes.isEmpty()) {
+        return true;
+      }
+      writes.sort(Comparator.comparingLong(entry -> entry.ref.id));
+      int locked = 0;
+      for (var entry : writes) {
+        if (!entry.ref.state.compareAndSet(entry.observed,
+            new TRef.Versioned(entry.observed.value, entry.observed.version, this))) {
+          unlock(writes, locked);
+          return false;
+        }
+        locked++;
+      }
+      var writeVersion = CLOCK.incrementAndGet();
+      if (writeVersion != readVersion + 1) {
+        for (var entry : entries.values()) {
+          if (!entry.written && entry.ref.state.get() != entry.observed) {
+            unlock(writes, locked);
+            return false;
+          }
+        }
+      }
+      for (var entry : writes) {
+        entry.ref.state.set(new TRef.Versioned(entry.value, writeVersion, null));
+      }
+      for (var entry : writes) {
+        entry.ref.notifyWaiters();
+      }
+      return true;
+    }
+
+    private void unlock(ArrayList<Entry> writes, int locked) {
+      for (int i = 0; i < locked; i++) {
+        var entry = writes.get(i);
+        entry.ref.state.set(entry.observed);
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    private final TRef<?> ref;
+    private final TRef.Versioned observed;
+    private Object value;
+    private boolean written;
+
+    private Entry(TRef<?> ref, TRef.Versioned observed) {
+      this.ref = ref;
+      this.observed = observed;
+      this.value = observed.value;
+    }
+  }
+
+  /*
+   * Registered in all the refs read by a transaction that retries, the first write to any of
+   * them resumes the fiber and removes the waiter from the rest.
+   */
+  static final class Waiter extends AtomicBoolean {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Journal journal;
+    private final Consumer<Try<Either<?, Unit>>> callback;
+
+    private Waiter(Journal journal, Consumer<Try<Either<?, Unit>>> callback) {
+      this.journal = journal;
+      this.callback = callback;
+    }
+
+    private void register() {
+      for (var entry : journal.entries.values()) {
+        entry.ref.waiters.offer(this);
+      }
+      for (var entry : journal.entries.values()) {
+        if (entry.ref.state.get() != entry.observed) {
+          wakeUp();
+          return;
+        }
+      }
+    }
+
+    void wakeUp() {
+      if (compareAndSet(false, true)) {
+        unregister();
+        callback.accept(Try.success(Either.right(unit())));
+      }
+    }
+
+    private void cancel() {
+      if (compareAndSet(false, true)) {
+        unregister();
+      }
+    }
+
+    private void unregister() {
+      for (var entry : journal.entries.values()) {
+        entry.ref.waiters.remove(this);
+      }
+    }
+  }
+
+  private static final class ControlFlow extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private ControlFlow() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vavr.Function1;
+
+/*
+ * A schedule decides, from the last input, the number of recurrences so far and the time elapsed
+ * since the first run, whether to recur and after which delay. The decision is a pure function,
+ * so the same schedule can drive any number of concurrent retries and there is no state to reset
+ * between runs. The delays are timer sleeps, so a waiting fiber does not hold any thread.
+ */
+public final class Schedule<A> {
+
+  private static final long DONE = -1;
+  private static final long MAX_DELAY = Long.MAX_VALUE >> 2;
+
+  private final Step<A> step;
+
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder repeats = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+  private final LongAdder totalDelay = new LongAdder();
+
+  private Schedule(Step<A> step) {
+    this.step = requireNonNull(step);
+  }
+
+  public Schedule<A> and(Schedule<A> other) {
+    requireNonNull(other);
+    return new Schedule<>((input, attempt, elapsed) -> {
+      var left = step.next(input, attempt, elapsed);
+      var right = other.step.next(input, attempt, elapsed);
+      return left < 0 || right < 0 ? DONE : Math.max(left, right);
+    });
+  }
+
+  public Schedule<A> or(Schedule<A> other) {
+    requireNonNull(other);
+    return new Schedule<>((input, attempt, elapsed) -> {
+      var left = step.next(input, attempt, elapsed);
+      var right = other.step.next(input, attempt, elapsed);
+      if (left < 0) {
+        return right;
+      }
+      return right < 0 ? left : Math.min(left, right);
+    });
+  }
+
+  public Schedule<A> whileInput(Function1<A, Boolean> condition) {
+    requireNonNull(condition);
+    return new Schedule<>((input, attempt, elapsed) ->
+        condition.apply(input) ? step.next(input, attempt, elapsed) : DONE);
+  }
+
+  public Schedule<A> upTo(Duration maxElapsed) {
+    var max = nanos(maxElapsed);
+    return new Schedule<>((input, attempt, elapsed) -> {
+      var delay = step.next(input, attempt, elapsed);
+      return delay < 0 || elapsed + delay > max ? DONE : delay;
+    });
+  }
+
+  public Schedule<A> maxDelay(Duration maxDelay) {
+    var max = nanos(maxDelay);
+    return new Schedule<>((input, attempt, elapsed) -> {
+      var delay = step.next(input, attempt, elapsed);
+      return delay < 0 ? DONE : Math.min(delay, max);
+    });
+  }
+
+  public Schedule<A> jittered() {
+    return jittered(0.0, 1.0);
+  }
+
+  public Schedule<A> jittered(double min, double max) {
+    if (min < 0 || max < min) {
+      throw new IllegalArgumentException("invalid jitter range: " + min + ", " + max);
+    }
+    return new Schedule<>((input, attempt, elapsed) -> {
+      var delay = step.next(input, attempt, elapsed);
+      if (delay <= 0) {
+        return delay;
+      }
+      var factor = min + ThreadLocalRandom.current().nextDouble() * (max - min);
+      return saturated(delay * factor);
+    });
+  }
+
+  public <T, F> ZIO<T, F, Stats> stats() {
+    return ZIO.task(() -> new Stats(retries.sum(), repeats.sum(), exhausted.sum(), totalDelay.sum()));
+  }
+
+  public static <A> Schedule<A> forever() {
+    return new Schedule<>((input, attempt, elapsed) -> 0);
+  }
+
+  public static <A> Schedule<A> recurs(int times) {
+    if (times < 0) {
+      throw new IllegalArgumentException("times should not be negative: " + times);
+    }
+    return new Schedule<>((input, attempt, elapsed) -> attempt < times ? 0 : DONE);
+  }
+
+  public static <A> Schedule<A> spaced(Duration interval) {
+    var delay = nanos(interval);
+    return new Schedule<>((input, attempt, elapsed) -> delay);
+  }
+
+  /*
+   * Recurs at multiples of the interval since the first run, so the time taken by the effect is
+   * not added to the period, and a run that takes longer than the period recurs right away.
+   */
+  public static <A> Schedule<A> fixed(Duration interval) {
+    var period = nanos(interval);
+    if (period == 0) {
+      throw new IllegalArgumentException("interval should be greater than zero: " + interval);
+    }
+    return new Schedule<>((input, attempt, elapsed) -> period - elapsed % period);
+  }
+
+  public static <A> Schedule<A> exponential(Duration base) {
+    return exponential(base, 2.0);
+  }
+
+  public static <A> Schedule<A> exponential(Duration base, double factor) {
+    var delay = nanos(base);
+    if (factor < 1.0) {
+      throw new IllegalArgumentException("factor should be at least one: " + factor);
+    }
+    return new Schedule<>((input, attempt, elapsed) -> saturated(delay * Math.pow(factor, attempt)));
+  }
+
+  public static <A> Schedule<A> fibonacci(Duration one) {
+    var delay = nanos(one);
+    return new Schedule<>((input, attempt, elapsed) -> {
+      long previous = 0;
+      long current = delay;
+      for (int i = 0; i < attempt && current < MAX_DELAY; i++) {
+        var next = Math.min(previous + current, MAX_DELAY);
+        previous = current;
+        current = next;
+      }
+      return current;
+    });
+  }
+
+  static <R, E, A> ZIO<R, E, A> retry(ZIO<R, E, A> effect, Schedule<? super E> schedule) {
+    requireNonNull(effect);
+    requireNonNull(schedule);
+    return ZIO.<R, E, Long>task(System::nanoTime).flatMap(start -> schedule.retry(effect, start, 0));
+  }
+
+  static <R, E, A> ZIO<R, E, A> repeat(ZIO<R, E, A> effect, Schedule<? super A> schedule) {
+    requireNonNull(effect);
+    requireNonNull(schedule);
+    return ZIO.<R, E, Long>task(System::nanoTime).flatMap(start -> schedule.repeat(effect, start, 0));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R, E, B> ZIO<R, E, B> retry(ZIO<R, E, B> effect, long start, int attempt) {
+    return effect.foldM(error -> {
+      var delay = step.next((A) error, attempt, System.nanoTime() - start);
+      if (delay < 0) {
+        exhausted.increment();
+        return ZIO.failure(error);
+      }
+      retries.increment();
+      totalDelay.add(delay);
+      return ZIO.<R, E>sleep(Duration.ofNanos(delay)).andThen(retry(effect, start, attempt + 1));
+    }, ZIO::pure);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R, E, B> ZIO<R, E, B> repeat(ZIO<R, E, B> effect, long start, int attempt) {
+    return effect.flatMap(value -> {
+      var delay = step.next((A) value, attempt, System.nanoTime() - start);
+      if (delay < 0) {
+        exhausted.increment();
+        return ZIO.pure(value);
+      }
+      repeats.increment();
+      totalDelay.add(delay);
+      return ZIO.<R, E>sleep(Duration.ofNanos(delay)).andThen(repeat(effect, start, attempt + 1));
+    });
+  }
+
+  private static long nanos(Duration duration) {
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("duration should not be negative: " + duration);
+    }
+    return Math.min(HashedWheelTimer.toNanos(duration), MAX_DELAY);
+  }
+
+  private static long saturated(double nanos) {
+    return nanos >= MAX_DELAY ? MAX_DELAY : (long) nanos;
+  }
+
+  public static final class Stats {
+
+    private final long retries;
+    private final long repeats;
+    private final long exhausted;
+    private final long totalDelay;
+
+    private Stats(long retries, long repeats, long exhausted, long totalDelay) {
+      this.retries = retries;
+      this.repeats = repeats;
+      this.exhausted = exhausted;
+      this.totalDelay = totalDelay;
+    }
+
+    public long retries() {
+      return retries;
+    }
+
+    public long repeats() {
+      return repeats;
+    }
+
+    public long exhausted() {
+      return exhausted;
+    }
+
+    public Duration totalDelay() {
+      return Duration.ofNanos(totalDelay);
+    }
+
+    public Duration averageDelay() {
+      var recurrences = retries + repeats;
+      return Duration.ofNanos(recurrences == 0 ? 0 : totalDelay / recurrences);
+    }
+
+    @Override
+    public String toString() {
+      return "Stats(retries=" + retries + ", repeats=" + repeats + ", exhausted=" + exhausted
+          + ", totalDelay=" + totalDelay + ")";
+    }
+  }
+
+  @FunctionalInterface
+  private interface Step<A> {
+
+    // the delay in nanos before the next recurrence, or a negative value to stop
+    long next(A input, int attempt, long elapsed);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * The finalizers of the resources acquired while a managed value is in use, kept in a lock-free
+ * stack so they run in the reverse order of the acquisition. Each finalizer runs even if the
+ * previous one failed; errors of the finalizers are ignored and defects are rethrown at the end.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+final class Scope {
+
+  private static final Finalizer CLOSED = new Finalizer(ZIO.unit(), null);
+
+  private final AtomicReference<Finalizer> finalizers = new AtomicReference<>();
+
+  boolean add(ZIO<?, ?, ?> finalizer) {
+    requireNonNull(finalizer);
+    while (true) {
+      var current = finalizers.get();
+      if (current == CLOSED) {
+        return false;
+      }
+      if (finalizers.compareAndSet(current, new Finalizer(finalizer, current))) {
+        return true;
+      }
+    }
+  }
+
+  /*
+   * A finalizer added to a closed scope runs right away, so a resource acquired while the scope
+   * was closing is never leaked.
+   */
+  <R, E> ZIO<R, E, Unit> addOrRun(ZIO<R, ?, ?> finalizer) {
+    return ZIO.<R, E, Boolean>task(() -> add(finalizer))
+        .flatMap(added -> added ? ZIO.unit() : run(new Finalizer(finalizer, null)));
+  }
+
+  <R, E> ZIO<R, E, Unit> close() {
+    return ZIO.<R, E, Finalizer>task(() -> finalizers.getAndSet(CLOSED)).flatMap(Scope::run);
+  }
+
+  private static <R, E> ZIO<R, E, Unit> run(Finalizer finalizer) {
+    if (finalizer == null || finalizer == CLOSED) {
+      return ZIO.unit();
+    }
+    ZIO<R, Object, Object> effect = (ZIO) finalizer.effect;
+    return ZIO.bracket(ZIO.unit(),
+        ignore -> effect.foldM(error -> ZIO.unit(), value -> ZIO.unit()),
+        ignore -> run(finalizer.next));
+  }
+
+  private static final class Finalizer {
+
+    private final ZIO<?, ?, ?> effect;
+    private final Finalizer next;
+
+    private Finalizer(ZIO<?, ?, ?> effect, Finalizer next) {
+      this.effect = effect;
+      this.next = next;
+    }
+  }
+}
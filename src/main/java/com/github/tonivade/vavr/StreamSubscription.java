@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static io.vavr.concurrent.Future.DEFAULT_EXECUTOR;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+/*
+ * Bridge from a stream to a reactive streams subscriber. A new chunk is pulled, in its own fiber,
+ * only when the previous one is consumed and there is pending demand, and the elements are
+ * emitted by a single drain loop guarded by a work-in-progress counter. The scope of the run is
+ * closed, once, when the stream ends or the subscription is cancelled.
+ */
+final class StreamSubscription<R, E, A> implements Subscription {
+
+  private final R env;
+  private final Scope scope;
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final Subscriber<? super Either<E, A>> subscriber;
+  private final AtomicLong requested = new AtomicLong();
+  private final AtomicInteger wip = new AtomicInteger();
+
+  private ZIO<R, Option<E>, Chunk<A>> pull;
+  private Chunk<A> buffer = Chunk.empty();
+  private int index;
+  private boolean pulling;
+
+  private volatile boolean cancelled;
+  private volatile Try<Either<Option<E>, Chunk<A>>> pulled;
+  private volatile FiberContext<R, Option<E>, Chunk<A>> running;
+
+  StreamSubscription(R env, ZIO<R, E, ZIO<R, Option<E>, Chunk<A>>> process, Scope scope,
+      Subscriber<? super Either<E, A>> subscriber) {
+    this.env = env;
+    this.scope = scope;
+    this.subscriber = subscriber;
+    this.pull = process.<Option<E>>mapError(Option::some).flatMap(next -> {
+      pull = next;
+      return next;
+    });
+  }
+
+  @Override
+  public void request(long n) {
+    if (n <= 0) {
+      cancel();
+      subscriber.onError(new IllegalArgumentException("§3.9 non-positive request: " + n));
+      return;
+    }
+    requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+    drain();
+  }
+
+  @Override
+  public void cancel() {
+    cancelled = true;
+    var fiber = running;
+    if (fiber != null) {
+      fiber.interruptNow();
+    }
+    close();
+  }
+
+  private void drain() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    while (true) {
+      if (cancelled) {
+        return;
+      }
+      long demand = requested.get();
+      long emitted = 0;
+      while (emitted != demand) {
+        if (index < buffer.size()) {
+          subscriber.onNext(Either.right(buffer.get(index++)));
+          emitted++;
+          continue;
+        }
+        var result = pulled;
+        if (result == null) {
+          break;
+        }
+        pulled = null;
+        pulling = false;
+        if (result.isFailure() || result.get().isLeft()) {
+          terminate(result);
+          return;
+        }
+        buffer = result.get().get();
+        index = 0;
+      }
+      if (emitted != 0 && demand != Long.MAX_VALUE) {
+        requested.addAndGet(-emitted);
+      }
+      if (index == buffer.size()) {
+        var result = pulled;
+        if (result != null && (result.isFailure() || isEnd(result.get()))) {
+          terminate(result);
+          return;
+        }
+        if (result == null && !pulling && requested.get() > 0) {
+          pulling = true;
+          start();
+        }
+      }
+      missed = wip.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+
+  private void start() {
+    var fiber = new FiberContext<>(env, DEFAULT_EXECUTOR, pull);
+    running = fiber;
+    fiber.observe(result -> {
+      pulled = result;
+      drain();
+    });
+    fiber.start();
+  }
+
+  private void terminate(Try<Either<Option<E>, Chunk<A>>> result) {
+    cancelled = true;
+    running = null;
+    close();
+    if (result.isFailure()) {
+      subscriber.onError(result.getCause());
+      return;
+    }
+    var error = result.get().getLeft();
+    if (error.isDefined()) {
+      subscriber.onNext(Either.left(error.get()));
+    }
+    subscriber.onComplete();
+  }
+
+  private void close() {
+    if (closed.compareAndSet(false, true)) {
+      new FiberContext<>(env, DEFAULT_EXECUTOR, scope.<R, Nothing>close()).start();
+    }
+  }
+
+  private static boolean isEnd(Either<? extends Option<?>, ?> either) {
+    return either.isLeft() && either.getLeft().isEmpty();
+  }
+}
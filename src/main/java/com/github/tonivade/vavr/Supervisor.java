@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * Hooks called by the run loop of the fibers. A fiber takes the supervisor installed when it is
+ * created, or the one of its parent when it is forked, and without a supervisor each hook costs
+ * a null check. A named effect takes the supervisor installed when it is named. The hooks are
+ * called in the threads of the fibers, so they should be cheap and thread safe, and they should
+ * not throw.
+ */
+public interface Supervisor {
+
+  default void onStart(Fiber<?, ?> fiber) { }
+
+  default void onEnd(Fiber<?, ?> fiber, Try<? extends Either<?, ?>> result) { }
+
+  default void onSuspend(Fiber<?, ?> fiber) { }
+
+  default void onResume(Fiber<?, ?> fiber) { }
+
+  // the fiber left the thread, to yield, suspend, shift or end, after running some steps
+  default void onYield(Fiber<?, ?> fiber, int steps) { }
+
+  default void onTask(Fiber<?, ?> fiber, long nanos, boolean failed) { }
+
+  default void onEffect(String name, long nanos, boolean failed) { }
+
+  static void install(Supervisor supervisor) {
+    ZIORuntime.supervisor = requireNonNull(supervisor);
+  }
+
+  static void uninstall() {
+    ZIORuntime.supervisor = null;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.vavr.Function1;
+import io.vavr.Tuple2;
+import io.vavr.control.Either;
+
+public final class TRef<A> {
+
+  private static final AtomicLong IDS = new AtomicLong();
+
+  final long id = IDS.incrementAndGet();
+  final AtomicReference<Versioned> state;
+  final ConcurrentLinkedQueue<STM.Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+  private TRef(A value) {
+    this.state = new AtomicReference<>(new Versioned(value, 0, null));
+  }
+
+  public <E> STM<E, A> get() {
+    return STM.of(journal -> Either.right(journal.read(this)));
+  }
+
+  public <E> STM<E, Unit> set(A value) {
+    return STM.of(journal -> { journal.write(this, value); return Either.right(unit()); });
+  }
+
+  public <E> STM<E, A> updateAndGet(Function1<A, A> update) {
+    return STM.of(journal -> {
+      var value = update.apply(journal.read(this));
+      journal.write(this, value);
+      return Either.right(value);
+    });
+  }
+
+  public <E> STM<E, A> getAndUpdate(Function1<A, A> update) {
+    return STM.of(journal -> {
+      var value = journal.read(this);
+      journal.write(this, update.apply(value));
+      return Either.right(value);
+    });
+  }
+
+  public <E, B> STM<E, B> modify(Function1<A, Tuple2<B, A>> change) {
+    return STM.of(journal -> {
+      var result = change.apply(journal.read(this));
+      journal.write(this, result._2());
+      return Either.right(result._1());
+    });
+  }
+
+  public static <A> TRef<A> of(A value) {
+    return new TRef<>(value);
+  }
+
+  @Override
+  public String toString() {
+    return "TRef(" + state.get().value + ")";
+  }
+
+  void notifyWaiters() {
+    var waiter = waiters.poll();
+    while (waiter != null) {
+      waiter.wakeUp();
+      waiter = waiters.poll();
+    }
+  }
+
+  /*
+   * Immutable snapshot of the value, the version of the commit that wrote it, and the journal
+   * that is committing a new value, if any.
+   */
+  static final class Versioned {
+
+    final Object value;
+    final long version;
+    final Object owner;
+
+    Versioned(Object value, long version, Object owner) {
+      this.value = value;
+      this.version = version;
+      this.owner = owner;
+    }
+  }
+}
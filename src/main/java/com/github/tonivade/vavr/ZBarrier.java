@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * The fiber version of a cyclic barrier. The parties of a generation are suspended on its
+ * promise, and the last one to arrive swaps in a new generation and completes the promise, so
+ * the barrier can be used again right away. The generation and the number of parties waiting
+ * are updated together with a CAS, and an interrupted party leaves the generation it was in.
+ */
+public final class ZBarrier {
+
+  private static final Try<Either<Nothing, Unit>> TRIPPED = Try.success(Either.right(unit()));
+
+  private final int parties;
+  private final AtomicReference<Generation> current = new AtomicReference<>(new Generation(Promise.make(), 0));
+
+  private ZBarrier(int parties) {
+    this.parties = parties;
+  }
+
+  /*
+   * Returns the arrival index, like the one of a cyclic barrier: parties - 1 for the first party
+   * to arrive and zero for the last one.
+   */
+  public <R, E> ZIO<R, E, Integer> await() {
+    return new ZIO.Async<>((env, callback) -> {
+      while (true) {
+        var generation = current.get();
+        var index = parties - 1 - generation.waiting;
+        if (index == 0) {
+          if (current.compareAndSet(generation, new Generation(Promise.make(), 0))) {
+            generation.tripped.completeNow(TRIPPED);
+            callback.accept(Try.success(Either.right(index)));
+            return ZIORuntime.NOOP;
+          }
+        } else if (current.compareAndSet(generation, new Generation(generation.tripped, generation.waiting + 1))) {
+          var cancel = generation.tripped.onComplete(result -> callback.accept(Try.success(Either.right(index))));
+          return () -> {
+            cancel.run();
+            leave(generation.tripped);
+          };
+        }
+      }
+    });
+  }
+
+  public <R, E> ZIO<R, E, Integer> waiting() {
+    return ZIO.task(() -> current.get().waiting);
+  }
+
+  public static ZBarrier of(int parties) {
+    if (parties < 1) {
+      throw new IllegalArgumentException("parties should be greater than zero: " + parties);
+    }
+    return new ZBarrier(parties);
+  }
+
+  @Override
+  public String toString() {
+    return "ZBarrier(" + current.get().waiting + "/" + parties + ")";
+  }
+
+  private void leave(Promise<Nothing, Unit> tripped) {
+    while (true) {
+      var generation = current.get();
+      if (generation.tripped != tripped || generation.waiting == 0) {
+        return;
+      }
+      if (current.compareAndSet(generation, new Generation(tripped, generation.waiting - 1))) {
+        return;
+      }
+    }
+  }
+
+  private static final class Generation {
+
+    private final Promise<Nothing, Unit> tripped;
+    private final int waiting;
+
+    private Generation(Promise<Nothing, Unit> tripped, int waiting) {
+      this.tripped = tripped;
+      this.waiting = waiting;
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vavr.Function1;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * Concurrent lookups of the same key share one load, forked in its own fiber. The size is bounded
+ * with the CLOCK approximation of LRU: a hit only sets a flag, and the eviction gives a second
+ * chance to the entries flagged since the last pass, so reads never take a lock or reorder a list.
+ * A load is forked masked, so an interruption of the caller can't leave the entry loading forever.
+ */
+@SuppressWarnings("unchecked")
+public final class ZCache<R, K, E, V> {
+
+  private final int capacity;
+  private final Function1<K, ZIO<R, E, V>> lookup;
+  private final Function1<Either<E, V>, Duration> timeToLive;
+  private final long refreshAfter;
+
+  private final ConcurrentHashMap<K, Entry<R, K, E, V>> entries = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Entry<R, K, E, V>> clock = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadTime = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private ZCache(int capacity, Function1<Either<E, V>, Duration> timeToLive,
+      Duration refreshAfter, Function1<K, ZIO<R, E, V>> lookup) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity should be greater than zero: " + capacity);
+    }
+    this.capacity = capacity;
+    this.timeToLive = requireNonNull(timeToLive);
+    this.refreshAfter = nanos(requireNonNull(refreshAfter));
+    this.lookup = requireNonNull(lookup);
+  }
+
+  public ZIO<R, E, V> get(K key) {
+    requireNonNull(key);
+    return ZIO.accessM(env -> lookup(key));
+  }
+
+  public ZIO<R, E, Unit> refresh(K key) {
+    requireNonNull(key);
+    return ZIO.accessM(env -> {
+      var entry = entries.get(key);
+      if (entry == null) {
+        return lookup(key).map(value -> unit());
+      }
+      while (true) {
+        var current = entry.state.get();
+        if (current instanceof OneShot) {
+          return await((OneShot<Try<Either<E, V>>>) current).map(value -> unit());
+        }
+        var reloading = entry.refreshing.get();
+        if (reloading != null) {
+          return await(reloading).map(value -> unit());
+        }
+        reloading = new OneShot<>();
+        if (entry.refreshing.compareAndSet(null, reloading)) {
+          return reload(entry, (Loaded<R, E, V>) current, reloading).andThen(await(reloading)).map(value -> unit());
+        }
+      }
+    });
+  }
+
+  public <T, F> ZIO<T, F, Unit> invalidate(K key) {
+    requireNonNull(key);
+    return ZIO.task(() -> { entries.remove(key); return unit(); });
+  }
+
+  public <T, F> ZIO<T, F, Unit> invalidateAll() {
+    return ZIO.task(() -> { entries.clear(); return unit(); });
+  }
+
+  public <T, F> ZIO<T, F, Integer> size() {
+    return ZIO.task(entries::size);
+  }
+
+  public <T, F> ZIO<T, F, Stats> stats() {
+    return ZIO.task(() -> new Stats(hits.sum(), misses.sum(), loads.sum(),
+        loadFailures.sum(), loadTime.sum(), evictions.sum()));
+  }
+
+  public static <R, K, E, V> ZCache<R, K, E, V> make(int capacity, Function1<K, ZIO<R, E, V>> lookup) {
+    return make(capacity, Duration.ofNanos(Long.MAX_VALUE), lookup);
+  }
+
+  public static <R, K, E, V> ZCache<R, K, E, V> make(
+      int capacity, Duration timeToLive, Function1<K, ZIO<R, E, V>> lookup) {
+    requireNonNull(timeToLive);
+    return make(capacity, result -> timeToLive, Duration.ofNanos(Long.MAX_VALUE), lookup);
+  }
+
+  public static <R, K, E, V> ZCache<R, K, E, V> make(int capacity,
+      Function1<Either<E, V>, Duration> timeToLive, Duration refreshAfter, Function1<K, ZIO<R, E, V>> lookup) {
+    return new ZCache<>(capacity, timeToLive, refreshAfter, lookup);
+  }
+
+  @Override
+  public String toString() {
+    return "ZCache(" + entries.size() + "/" + capacity + ")";
+  }
+
+  private ZIO<R, E, V> lookup(K key) {
+    while (true) {
+      var entry = entries.get(key);
+      if (entry == null) {
+        var created = new Entry<R, K, E, V>(key);
+        if (entries.putIfAbsent(key, created) != null) {
+          continue;
+        }
+        misses.increment();
+        enqueue(created);
+        return load(created, (OneShot<Try<Either<E, V>>>) created.state.get());
+      }
+      var current = entry.state.get();
+      if (current instanceof OneShot) {
+        hits.increment();
+        return await((OneShot<Try<Either<E, V>>>) current);
+      }
+      var loaded = (Loaded<R, E, V>) current;
+      var age = System.nanoTime() - loaded.loadedAt;
+      if (age < loaded.timeToLive) {
+        hits.increment();
+        if (!entry.referenced) {
+          entry.referenced = true;
+        }
+        if (age >= refreshAfter && entry.refreshing.get() == null) {
+          var reloading = new OneShot<Try<Either<E, V>>>();
+          if (entry.refreshing.compareAndSet(null, reloading)) {
+            return reload(entry, loaded, reloading).andThen(loaded.value);
+          }
+        }
+        return loaded.value;
+      }
+      var loading = new OneShot<Try<Either<E, V>>>();
+      if (entry.state.compareAndSet(loaded, loading)) {
+        misses.increment();
+        return load(entry, loading);
+      }
+    }
+  }
+
+  private ZIO<R, E, V> load(Entry<R, K, E, V> entry, OneShot<Try<Either<E, V>>> loading) {
+    return fork(entry.key).map(tuple -> {
+      tuple.fiber.observe(result -> publish(entry, loading, result, tuple.start));
+      return unit();
+    }).uninterruptible().andThen(await(loading));
+  }
+
+  /*
+   * Only the lookup or the refresh that set the reloading of the entry calls this, the others
+   * await that reloading, so there is one reload of a key at a time.
+   */
+  private ZIO<R, E, Unit> reload(Entry<R, K, E, V> entry,
+      Loaded<R, E, V> previous, OneShot<Try<Either<E, V>>> reloading) {
+    return fork(entry.key).map(tuple -> {
+      tuple.fiber.observe(result -> replace(entry, previous, reloading, result, tuple.start));
+      return unit();
+    }).uninterruptible();
+  }
+
+  private ZIO<R, E, Forked<R, E, V>> fork(K key) {
+    return ZIO.<R, E, Long>task(System::nanoTime)
+        .flatMap(start -> ZIO.accessM((R env) -> lookup.apply(key)).fork()
+            .map(fiber -> new Forked<>((FiberContext<R, E, V>) fiber, start)));
+  }
+
+  private void publish(Entry<R, K, E, V> entry,
+      OneShot<Try<Either<E, V>>> loading, Try<Either<E, V>> result, long start) {
+    var loaded = loaded(result, start);
+    if (loaded != null) {
+      entry.state.set(loaded);
+    } else {
+      entries.remove(entry.key, entry);
+    }
+    loading.complete(result);
+  }
+
+  /*
+   * A failed refresh keeps the previous value until it expires, only a new value replaces it.
+   */
+  private void replace(Entry<R, K, E, V> entry, Loaded<R, E, V> previous,
+      OneShot<Try<Either<E, V>>> reloading, Try<Either<E, V>> result, long start) {
+    var loaded = loaded(result, start);
+    if (loaded != null && result.get().isRight()) {
+      entry.state.compareAndSet(previous, loaded);
+    }
+    entry.refreshing.compareAndSet(reloading, null);
+    reloading.complete(result);
+  }
+
+  private Loaded<R, E, V> loaded(Try<Either<E, V>> result, long start) {
+    var now = System.nanoTime();
+    loads.increment();
+    loadTime.add(now - start);
+    if (result.isFailure() || result.get().isLeft()) {
+      loadFailures.increment();
+    }
+    if (result.isFailure()) {
+      return null;
+    }
+    var either = result.get();
+    return new Loaded<>(ZIO.from(() -> either), now, nanos(timeToLive.apply(either)));
+  }
+
+  /*
+   * An entry still loading is never evicted, or the next lookup of its key would start a second
+   * load. When all the candidates are loading, the cache stays over capacity until the next miss.
+   */
+  private void enqueue(Entry<R, K, E, V> entry) {
+    clock.offer(entry);
+    if (queued.incrementAndGet() > capacity << 1) {
+      clock.removeIf(queue -> entries.get(queue.key) != queue);
+      queued.set(clock.size());
+    }
+    int loading = 0;
+    while (entries.size() > capacity) {
+      var candidate = clock.poll();
+      if (candidate == null) {
+        return;
+      }
+      queued.decrementAndGet();
+      if (entries.get(candidate.key) != candidate) {
+        continue;
+      }
+      if (candidate.state.get() instanceof OneShot) {
+        clock.offer(candidate);
+        if (++loading > queued.incrementAndGet()) {
+          return;
+        }
+      } else if (candidate.referenced) {
+        candidate.referenced = false;
+        clock.offer(candidate);
+        queued.incrementAndGet();
+      } else if (entries.remove(candidate.key, candidate)) {
+        evictions.increment();
+      }
+    }
+  }
+
+  private ZIO<R, E, V> await(OneShot<Try<Either<E, V>>> loading) {
+    return new ZIO.Async<>((env, callback) -> loading.onComplete(callback));
+  }
+
+  private static long nanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  public static final class Stats {
+
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long totalLoadTime;
+    private final long evictions;
+
+    private Stats(long hits, long misses, long loads, long loadFailures, long totalLoadTime, long evictions) {
+      this.hits = hits;
+      this.misses = misses;
+      this.loads = loads;
+      this.loadFailures = loadFailures;
+      this.totalLoadTime = totalLoadTime;
+      this.evictions = evictions;
+    }
+
+    public long hits() {
+      return hits;
+    }
+
+    public long misses() {
+      return misses;
+    }
+
+    public long loads() {
+      return loads;
+    }
+
+    public long loadFailures() {
+      return loadFailures;
+    }
+
+    public Duration totalLoadTime() {
+      return Duration.ofNanos(totalLoadTime);
+    }
+
+    public long evictions() {
+      return evictions;
+    }
+
+    public double hitRate() {
+      var requests = hits + misses;
+      return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    public Duration averageLoadPenalty() {
+      return Duration.ofNanos(loads == 0 ? 0 : totalLoadTime / loads);
+    }
+
+    @Override
+    public String toString() {
+      return "Stats(hits=" + hits + ", misses=" + misses + ", loads=" + loads
+          + ", loadFailures=" + loadFailures + ", totalLoadTime=" + totalLoadTime
+          + ", evictions=" + evictions + ")";
+    }
+  }
+
+  private static final class Entry<R, K, E, V> {
+
+    private final K key;
+    // OneShot while loading, Loaded after
+    private final AtomicReference<Object> state = new AtomicReference<>(new OneShot<>());
+    // the reload in flight, if any
+    private final AtomicReference<OneShot<Try<Either<E, V>>>> refreshing = new AtomicReference<>();
+    private volatile boolean referenced;
+
+    private Entry(K key) {
+      this.key = key;
+    }
+  }
+
+  private static final class Loaded<R, E, V> {
+
+    private final ZIO<R, E, V> value;
+    private final long loadedAt;
+    private final long timeToLive;
+
+    private Loaded(ZIO<R, E, V> value, long loadedAt, long timeToLive) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+      this.timeToLive = timeToLive;
+    }
+  }
+
+  private static final class Forked<R, E, V> {
+
+    private final FiberContext<R, E, V> fiber;
+    private final long start;
+
+    private Forked(FiberContext<R, E, V> fiber, long start) {
+      this.fiber = fiber;
+      this.start = start;
+    }
+  }
+}
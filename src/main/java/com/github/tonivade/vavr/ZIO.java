@@ -9,28 +9,50 @@ import static io.vavr.Function1.identity;
 import static io.vavr.concurrent.Future.DEFAULT_EXECUTOR;
 import static java.util.Objects.requireNonNull;
 
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
+import io.reactivex.Maybe;
 import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
 import io.vavr.CheckedRunnable;
 import io.vavr.Function0;
 import io.vavr.Function1;
 import io.vavr.Function2;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
 import io.vavr.concurrent.Future;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import io.vavr.control.Try;
 
 public interface ZIO<R, E, A> {
 
-  Either<E, A> provide(R env);
+  default Either<E, A> provide(R env) {
+    return ZIORuntime.run(this, env);
+  }
 
-  Future<Either<E, A>> toFuture(Executor executor, R env);
-  
-  Observable<Either<E, A>> toObservable(R env);
+  default Future<Either<E, A>> toFuture(Executor executor, R env) {
+    return ZIORuntime.runAsync(this, executor, env);
+  }
   
+  default Observable<Either<E, A>> toObservable(R env) {
+    return toSingle(env).toObservable();
+  }
+
+  default Single<Either<E, A>> toSingle(R env) {
+    return ZIORuntime.runSingle(this, env);
+  }
+
+  default Maybe<A> toMaybe(R env) {
+    return toSingle(env).flatMapMaybe(either -> either.fold(error -> Maybe.empty(), Maybe::just));
+  }
+
   default Future<Either<E, A>> toFuture(R env) {
     return toFuture(DEFAULT_EXECUTOR, env);
   }
@@ -44,7 +66,7 @@ public interface ZIO<R, E, A> {
   }
 
   default <B> ZIO<R, E, B> map(Function1<A, B> map) {
-    return new FlatMapped<>(this, ZIO::failure, map.andThen(ZIO::pure));
+    return new Map<>(this, map, 1);
   }
 
   default <B> ZIO<R, E, B> flatMap(Function1<A, ZIO<R, E, B>> map) {
@@ -56,7 +78,7 @@ public interface ZIO<R, E, A> {
   }
 
   default <F> ZIO<R, F, A> mapError(Function1<E, F> map) {
-    return new FlatMapped<>(this, map.andThen(ZIO::failure), ZIO::pure);
+    return new MapError<>(this, map, 1);
   }
 
   default <F> ZIO<R, F, A> flatMapError(Function1<E, ZIO<R, F, A>> map) {
@@ -64,13 +86,66 @@ public interface ZIO<R, E, A> {
   }
 
   default <B, F> ZIO<R, F, B> bimap(Function1<E, F> mapError, Function1<A, B> map) {
-    return new FlatMapped<>(this, mapError.andThen(ZIO::failure), map.andThen(ZIO::pure));
+    return map(map).mapError(mapError);
   }
 
   default <B> ZIO<R, E, B> andThen(ZIO<R, E, B> next) {
     return flatMap(ignore -> next);
   }
 
+  default ZIO<R, E, Fiber<E, A>> fork() {
+    return new Fork<>(this, null);
+  }
+
+  default ZIO<R, E, Fiber<E, A>> forkOn(Executor executor) {
+    return new Fork<>(this, requireNonNull(executor));
+  }
+
+  default ZIO<R, E, A> delay(Duration duration) {
+    return ZIO.<R, E>sleep(duration).andThen(this);
+  }
+
+  default ZIO<R, E, Option<A>> timeout(Duration duration) {
+    return Racing.timeout(this, duration);
+  }
+
+  default ZIO<R, E, A> race(ZIO<R, E, A> other) {
+    return Racing.race(this, other);
+  }
+
+  default ZIO<R, E, A> retry(Schedule<? super E> schedule) {
+    return Schedule.retry(this, schedule);
+  }
+
+  default ZIO<R, E, A> repeat(Schedule<? super A> schedule) {
+    return Schedule.repeat(this, schedule);
+  }
+
+  default ZIO<R, E, A> ensuring(ZIO<R, ?, ?> finalizer) {
+    requireNonNull(finalizer);
+    return bracket(unit(), ignore -> this, ignore -> finalizer);
+  }
+
+  default ZIO<R, E, A> uninterruptible() {
+    return new Uninterruptible<>(this);
+  }
+
+  default <T> ZIO<T, E, A> provideLayer(ZLayer<T, E, R> layer) {
+    return layer.toManaged().use(env -> ZIORuntime.provide(this, env));
+  }
+
+  default ZIO<R, E, A> named(String name) {
+    return ZIORuntime.named(this, name);
+  }
+
+  default ZIO<R, E, A> memoize() {
+    return Cached.memoize(this);
+  }
+
+  default ZIO<R, E, A> cached(Duration ttl) {
+    return Cached.cached(this, ttl);
+  }
+
   default <B, F> ZIO<R, F, B> foldM(Function1<E, ZIO<R, F, B>> mapError, Function1<A, ZIO<R, F, B>> map) {
     return new FoldM<>(this, mapError, map);
   }
@@ -102,6 +177,27 @@ public interface ZIO<R, E, A> {
     return za.flatMap(a -> zb.map(b -> mapper.curried().apply(a).apply(b)));
   }
 
+  @SuppressWarnings("unchecked")
+  static <R, E, A, B, C> ZIO<R, E, C> zipPar(ZIO<R, E, A> za, ZIO<R, E, B> zb, Function2<A, B, C> mapper) {
+    return Parallel.<R, E, ZIO<R, E, ?>, Object>foreachParN(2, Array.of(za, zb), zio -> (ZIO<R, E, Object>) zio)
+        .map(values -> mapper.apply((A) values.get(0), (B) values.get(1)));
+  }
+
+  static <R, E, A> ZIO<R, E, Seq<A>> collectAll(Iterable<ZIO<R, E, A>> effects) {
+    var array = Array.ofAll(effects);
+    return ZIO.<R, E, Object[]>task(() -> new Object[array.size()])
+        .flatMap(results -> collectAll(array, results, 0));
+  }
+
+  static <R, E, A> ZIO<R, E, Seq<A>> collectAllPar(Iterable<ZIO<R, E, A>> effects) {
+    var array = Array.ofAll(effects);
+    return foreachParN(Math.max(1, array.size()), array, identity());
+  }
+
+  static <R, E, A, B> ZIO<R, E, Seq<B>> foreachParN(int parallelism, Iterable<A> items, Function1<A, ZIO<R, E, B>> mapper) {
+    return Parallel.foreachParN(parallelism, items, mapper);
+  }
+
   static <R, E, A> ZIO<R, E, A> absorb(ZIO<R, E, Either<E, A>> value) {
     return value.flatMap(either -> either.fold(ZIO::failure, ZIO::pure));
   }
@@ -110,6 +206,10 @@ public interface ZIO<R, E, A> {
     return value -> from(() -> function.apply(value));
   }
 
+  static <R, E, A> ZIO<R, E, A> fromEither(Either<E, A> either) {
+    return either.fold(ZIO::failure, ZIO::pure);
+  }
+
   static <R, E, A> ZIO<R, E, A> from(Function0<Either<E, A>> task) {
     return new Task<>(task);
   }
@@ -118,10 +218,50 @@ public interface ZIO<R, E, A> {
     return new Attemp<>(task);
   }
 
+  static <R, A> ZIO<R, Throwable, A> effectBlocking(CheckedFunction0<A> task) {
+    return blocking(from(task));
+  }
+
+  static <R, E, A> ZIO<R, E, A> blocking(ZIO<R, E, A> effect) {
+    return new Blocking<>(effect);
+  }
+
   static <R> ZIO<R, Throwable, Unit> exec(CheckedRunnable task) {
     return new Attemp<>(() -> { task.run(); return Unit.unit(); });
   }
 
+  static <R, E, A> ZIO<R, E, A> async(Consumer<Consumer<Try<Either<E, A>>>> register) {
+    requireNonNull(register);
+    return new Async<>((env, callback) -> {
+      register.accept(callback);
+      return ZIORuntime.NOOP;
+    });
+  }
+
+  static <R, A> ZIO<R, Throwable, A> fromCompletionStage(Function0<? extends CompletionStage<A>> stage) {
+    requireNonNull(stage);
+    return new Async<>((env, callback) -> {
+      CompletionStage<A> current = stage.get();
+      current.whenComplete((value, error) -> {
+        if (error == null) {
+          callback.accept(Try.success(Either.right(value)));
+        } else {
+          callback.accept(Try.success(Either.left(error instanceof CompletionException ? error.getCause() : error)));
+        }
+      });
+      return () -> current.toCompletableFuture().cancel(false);
+    });
+  }
+
+  static <R, E, A, B> ZIO<R, E, B> bracket(
+      ZIO<R, E, A> acquire, Function1<A, ZIO<R, E, B>> use, Function1<A, ZIO<R, ?, ?>> release) {
+    return new Bracket<>(acquire, use, release);
+  }
+
+  static <R, E> ZIO<R, E, Unit> sleep(Duration duration) {
+    return Racing.sleep(duration);
+  }
+
   static <R, E, A> ZIO<R, E, A> task(Function0<A> task) {
     return new Task<>(task.andThen(Either::right));
   }
@@ -139,29 +279,37 @@ public interface ZIO<R, E, A> {
     return (ZIO<R, E, Unit>) ZIOModule.UNIT;
   }
 
-  final class Pure<R, E, A> implements ZIO<R, E, A> {
+  @SuppressWarnings("unchecked")
+  private static <R, E, A> ZIO<R, E, Seq<A>> collectAll(Array<ZIO<R, E, A>> effects, Object[] results, int index) {
+    if (index == results.length) {
+      return ZIO.pure((Seq<A>) Array.of(results));
+    }
+    return effects.get(index).flatMap(value -> {
+      results[index] = value;
+      return collectAll(effects, results, index + 1);
+    });
+  }
 
-    private A value;
+  final class Pure<R, E, A> extends ZIONode<R, E, A> {
+
+    final A value;
 
     private Pure(A value) {
+      super(ZIONode.PURE);
       this.value = requireNonNull(value);
     }
 
     @Override
-    public Either<E, A> provide(R env) {
-      return Either.right(value);
+    public <B> ZIO<R, E, B> map(Function1<A, B> map) {
+      return pure(map.apply(value));
     }
 
     @Override
-    public Future<Either<E, A>> toFuture(Executor executor, R env) {
-      return Future.successful(executor, Either.right(value));
+    @SuppressWarnings("unchecked")
+    public <F> ZIO<R, F, A> mapError(Function1<E, F> map) {
+      return (ZIO<R, F, A>) this;
     }
     
-    @Override
-    public Observable<Either<E, A>> toObservable(R env) {
-      return Observable.just(Either.right(value));
-    }
-
     @SuppressWarnings("exports")
     @Override
     public ZIOModule getModule() {
@@ -174,29 +322,26 @@ public interface ZIO<R, E, A> {
     }
   }
 
-  final class Failure<R, E, A> implements ZIO<R, E, A> {
+  final class Failure<R, E, A> extends ZIONode<R, E, A> {
 
-    private E error;
+    final E error;
 
     private Failure(E error) {
+      super(ZIONode.FAILURE);
       this.error = requireNonNull(error);
     }
 
     @Override
-    public Either<E, A> provide(R env) {
-      return Either.left(error);
+    @SuppressWarnings("unchecked")
+    public <B> ZIO<R, E, B> map(Function1<A, B> map) {
+      return (ZIO<R, E, B>) this;
     }
 
     @Override
-    public Future<Either<E, A>> toFuture(Executor executor, R env) {
-      return Future.successful(executor, Either.left(error));
+    public <F> ZIO<R, F, A> mapError(Function1<E, F> map) {
+      return failure(map.apply(error));
     }
     
-    @Override
-    public Observable<Either<E, A>> toObservable(R env) {
-      return Observable.just(Either.left(error));
-    }
-
     @SuppressWarnings("exports")
     @Override
     public ZIOModule getModule() {
@@ -209,38 +354,52 @@ public interface ZIO<R, E, A> {
     }
   }
 
-  final class FlatMapped<R, E, A, F, B> implements ZIO<R, F, B> {
+  final class FlatMapped<R, E, A, F, B> extends ZIONode<R, F, B> {
 
-    private ZIO<R, E, A> current;
-    private Function1<E, ZIO<R, F, B>> nextError;
-    private Function1<A, ZIO<R, F, B>> next;
+    final ZIO<R, E, A> current;
+    final Function1<E, ZIO<R, F, B>> nextError;
+    final Function1<A, ZIO<R, F, B>> next;
 
     private FlatMapped(ZIO<R, E, A> current,
                        Function1<E, ZIO<R, F, B>> nextError,
                        Function1<A, ZIO<R, F, B>> next) {
+      super(ZIONode.FLAT_MAP);
       this.current = requireNonNull(current);
       this.nextError = requireNonNull(nextError);
       this.next = requireNonNull(next);
     }
 
+    @SuppressWarnings("exports")
     @Override
-    public Either<F, B> provide(R env) {
-      var bimap = current.provide(env).bimap(nextError, next);
-      return bimap.fold(identity(), identity()).provide(env);
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
     }
 
     @Override
-    public Future<Either<F, B>> toFuture(Executor executor, R env) {
-      var future = current.toFuture(executor, env);
-      var bimap = future.map(either -> either.bimap(nextError, next));
-      return bimap.flatMap(either -> either.fold(identity(), identity()).toFuture(executor, env));
+    public String toString() {
+      return "FlatMapped(" + current + ", ?, ?)";
     }
-    
+  }
+
+  final class Map<R, E, A, B> extends ZIONode<R, E, B> {
+
+    final ZIO<R, E, A> current;
+    final Function1<A, B> mapper;
+    private final int fused;
+
+    private Map(ZIO<R, E, A> current, Function1<A, B> mapper, int fused) {
+      super(ZIONode.MAP);
+      this.current = requireNonNull(current);
+      this.mapper = requireNonNull(mapper);
+      this.fused = fused;
+    }
+
     @Override
-    public Observable<Either<F, B>> toObservable(R env) {
-      var observable = current.toObservable(env);
-      var bimap = observable.map(either -> either.bimap(nextError, next));
-      return bimap.flatMap(either -> either.fold(identity(), identity()).toObservable(env));
+    public <C> ZIO<R, E, C> map(Function1<B, C> map) {
+      if (fused < ZIOModule.MAX_FUSION) {
+        return new Map<>(current, mapper.andThen(map), fused + 1);
+      }
+      return new Map<>(this, map, 1);
     }
 
     @SuppressWarnings("exports")
@@ -251,31 +410,50 @@ public interface ZIO<R, E, A> {
 
     @Override
     public String toString() {
-      return "FlatMapped(" + current + ", ?, ?)";
+      return "Map(" + current + ", ?)";
     }
   }
 
-  final class Task<R, E, A> implements ZIO<R, E, A> {
+  final class MapError<R, E, A, F> extends ZIONode<R, F, A> {
 
-    private Function0<Either<E, A>> task;
+    final ZIO<R, E, A> current;
+    final Function1<E, F> mapper;
+    private final int fused;
 
-    private Task(Function0<Either<E, A>> task) {
-      this.task = requireNonNull(task);
+    private MapError(ZIO<R, E, A> current, Function1<E, F> mapper, int fused) {
+      super(ZIONode.MAP_ERROR);
+      this.current = requireNonNull(current);
+      this.mapper = requireNonNull(mapper);
+      this.fused = fused;
     }
 
     @Override
-    public Either<E, A> provide(R env) {
-      return task.apply();
+    public <G> ZIO<R, G, A> mapError(Function1<F, G> map) {
+      if (fused < ZIOModule.MAX_FUSION) {
+        return new MapError<>(current, mapper.andThen(map), fused + 1);
+      }
+      return new MapError<>(this, map, 1);
     }
 
+    @SuppressWarnings("exports")
     @Override
-    public Future<Either<E, A>> toFuture(Executor executor, R env) {
-      return Future.of(executor, task::get);
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
     }
-    
+
     @Override
-    public Observable<Either<E, A>> toObservable(R env) {
-      return Observable.fromCallable(task::get);
+    public String toString() {
+      return "MapError(" + current + ", ?)";
+    }
+  }
+
+  final class Task<R, E, A> extends ZIONode<R, E, A> {
+
+    final Function0<Either<E, A>> task;
+
+    private Task(Function0<Either<E, A>> task) {
+      super(ZIONode.TASK);
+      this.task = requireNonNull(task);
     }
 
     @SuppressWarnings("exports")
@@ -290,27 +468,55 @@ public interface ZIO<R, E, A> {
     }
   }
 
-  final class Swap<R, E, A> implements ZIO<R, A, E> {
+  final class Swap<R, E, A> extends ZIONode<R, A, E> {
 
-    private ZIO<R, E, A> current;
+    final ZIO<R, E, A> current;
 
     private Swap(ZIO<R, E, A> current) {
+      super(ZIONode.SWAP);
       this.current = requireNonNull(current);
     }
 
+    @SuppressWarnings("exports")
     @Override
-    public Either<A, E> provide(R env) {
-      return current.provide(env).swap();
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
     }
 
     @Override
-    public Future<Either<A, E>> toFuture(Executor executor, R env) {
-      return current.toFuture(executor, env).map(Either::swap);
+    public String toString() {
+      return "Swap(" + current + ")";
+    }
+  }
+
+  final class Attemp<R, A> extends ZIONode<R, Throwable, A> {
+
+    final CheckedFunction0<A> current;
+
+    private Attemp(CheckedFunction0<A> current) {
+      super(ZIONode.ATTEMP);
+      this.current = requireNonNull(current);
     }
     
+    @SuppressWarnings("exports")
+    @Override
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
-    public Observable<Either<A, E>> toObservable(R env) {
-      return current.toObservable(env).map(Either::swap);
+    public String toString() {
+      return "Attemp(" + current + ")";
+    }
+  }
+
+  final class AccessM<R, E, A> extends ZIONode<R, E, A> {
+
+    final Function1<R, ZIO<R, E, A>> function;
+
+    private AccessM(Function1<R, ZIO<R, E, A>> function) {
+      super(ZIONode.ACCESS);
+      this.function = requireNonNull(function);
     }
 
     @SuppressWarnings("exports")
@@ -321,31 +527,44 @@ public interface ZIO<R, E, A> {
 
     @Override
     public String toString() {
-      return "Swap(" + current + ")";
+      return "AccessM(?)";
     }
   }
 
-  final class Attemp<R, A> implements ZIO<R, Throwable, A> {
+  final class FoldM<R, E, A, F, B> extends ZIONode<R, F, B> {
 
-    private final CheckedFunction0<A> current;
+    final ZIO<R, E, A> current;
+    final Function1<E, ZIO<R, F, B>> nextError;
+    final Function1<A, ZIO<R, F, B>> next;
 
-    private Attemp(CheckedFunction0<A> current) {
+    private FoldM(ZIO<R, E, A> current, Function1<E, ZIO<R, F, B>> nextError, Function1<A, ZIO<R, F, B>> next) {
+      super(ZIONode.FOLD);
       this.current = requireNonNull(current);
+      this.nextError = requireNonNull(nextError);
+      this.next = requireNonNull(next);
     }
 
+    @SuppressWarnings("exports")
     @Override
-    public Either<Throwable, A> provide(R env) {
-      return Try.of(current).toEither();
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
     }
 
     @Override
-    public Future<Either<Throwable, A>> toFuture(Executor executor, R env) {
-      return Future.of(executor, () -> Try.of(current).toEither());
+    public String toString() {
+      return "FoldM(" + current + ", ?, ?)";
     }
-    
-    @Override
-    public Observable<Either<Throwable, A>> toObservable(R env) {
-      return Observable.fromCallable(() -> Try.of(current).toEither());
+  }
+
+  final class Fork<R, E, A> extends ZIONode<R, E, Fiber<E, A>> {
+
+    final ZIO<R, E, A> current;
+    final Executor executor;
+
+    private Fork(ZIO<R, E, A> current, Executor executor) {
+      super(ZIONode.FORK);
+      this.current = requireNonNull(current);
+      this.executor = executor;
     }
 
     @SuppressWarnings("exports")
@@ -356,33 +575,63 @@ public interface ZIO<R, E, A> {
 
     @Override
     public String toString() {
-      return "Attemp(" + current + ")";
+      return "Fork(" + current + ")";
     }
   }
 
-  final class AccessM<R, E, A> implements ZIO<R, E, A> {
+  final class Blocking<R, E, A> extends ZIONode<R, E, A> {
 
-    private Function1<R, ZIO<R, E, A>> function;
+    final ZIO<R, E, A> current;
 
-    private AccessM(Function1<R, ZIO<R, E, A>> function) {
-      this.function = requireNonNull(function);
+    private Blocking(ZIO<R, E, A> current) {
+      super(ZIONode.BLOCKING);
+      this.current = requireNonNull(current);
     }
 
+    @SuppressWarnings("exports")
     @Override
-    public Either<E, A> provide(R env) {
-      return function.apply(env).provide(env);
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
     }
 
     @Override
-    public Future<Either<E, A>> toFuture(Executor executor, R env) {
-      return Future.of(executor, () -> function.apply(env))
-          .flatMap(zio -> zio.toFuture(executor, env));
+    public String toString() {
+      return "Blocking(" + current + ")";
     }
-    
+  }
+
+  final class Uninterruptible<R, E, A> extends ZIONode<R, E, A> {
+
+    final ZIO<R, E, A> current;
+
+    private Uninterruptible(ZIO<R, E, A> current) {
+      super(ZIONode.UNINTERRUPTIBLE);
+      this.current = requireNonNull(current);
+    }
+
+    @SuppressWarnings("exports")
     @Override
-    public Observable<Either<E, A>> toObservable(R env) {
-      return Observable.fromCallable(() -> function.apply(env))
-          .flatMap(zio -> zio.toObservable(env));
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+      return "Uninterruptible(" + current + ")";
+    }
+  }
+
+  final class Bracket<R, E, A, B> extends ZIONode<R, E, B> {
+
+    final ZIO<R, E, A> acquire;
+    final Function1<A, ZIO<R, E, B>> use;
+    final Function1<A, ZIO<R, ?, ?>> release;
+
+    private Bracket(ZIO<R, E, A> acquire, Function1<A, ZIO<R, E, B>> use, Function1<A, ZIO<R, ?, ?>> release) {
+      super(ZIONode.BRACKET);
+      this.acquire = requireNonNull(acquire);
+      this.use = requireNonNull(use);
+      this.release = requireNonNull(release);
     }
 
     @SuppressWarnings("exports")
@@ -393,39 +642,61 @@ public interface ZIO<R, E, A> {
 
     @Override
     public String toString() {
-      return "AccessM(?)";
+      return "Bracket(" + acquire + ", ?, ?)";
     }
   }
 
-  final class FoldM<R, E, A, F, B> implements ZIO<R, F, B> {
+  final class Local<R, E, A> extends ZIONode<R, E, A> {
 
-    private ZIO<R, E, A> current;
-    private Function1<E, ZIO<R, F, B>> nextError;
-    private Function1<A, ZIO<R, F, B>> next;
+    @SuppressWarnings("rawtypes")
+    final Function1<FiberContext, A> function;
 
-    private FoldM(ZIO<R, E, A> current, Function1<E, ZIO<R, F, B>> nextError, Function1<A, ZIO<R, F, B>> next) {
-      this.current = requireNonNull(current);
-      this.nextError = requireNonNull(nextError);
-      this.next = requireNonNull(next);
+    @SuppressWarnings("rawtypes")
+    Local(Function1<FiberContext, A> function) {
+      super(ZIONode.LOCAL);
+      this.function = requireNonNull(function);
     }
 
+    @SuppressWarnings("exports")
     @Override
-    public Either<F, B> provide(R env) {
-      return current.provide(env).fold(nextError, next).provide(env);
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
     }
 
     @Override
-    public Future<Either<F, B>> toFuture(Executor executor, R env) {
-      var future = current.toFuture(executor, env);
-      var map = future.map(either -> either.fold(nextError, next));
-      return map.flatMap(zio -> zio.toFuture(executor, env));
+    public String toString() {
+      return "Local(?)";
     }
-    
+  }
+
+  final class GetLocal<R, E, A> extends ZIONode<R, E, A> {
+
+    final FiberRef<A> ref;
+
+    GetLocal(FiberRef<A> ref) {
+      super(ZIONode.GET_LOCAL);
+      this.ref = requireNonNull(ref);
+    }
+
+    @SuppressWarnings("exports")
     @Override
-    public Observable<Either<F, B>> toObservable(R env) {
-      var observable = current.toObservable(env);
-      var map = observable.map(either -> either.fold(nextError, next));
-      return map.flatMap(zio -> zio.toObservable(env));
+    public ZIOModule getModule() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+      return "GetLocal(" + ref + ")";
+    }
+  }
+
+  final class Async<R, E, A> extends ZIONode<R, E, A> {
+
+    final Function2<R, Consumer<Try<Either<E, A>>>, Runnable> register;
+
+    Async(Function2<R, Consumer<Try<Either<E, A>>>, Runnable> register) {
+      super(ZIONode.ASYNC);
+      this.register = requireNonNull(register);
     }
 
     @SuppressWarnings("exports")
@@ -436,11 +707,7 @@ public interface ZIO<R, E, A> {
 
     @Override
     public String toString() {
-      return "FoldM(" + current + ", ?, ?)";
+      return "Async(?)";
     }
   }
 }
-
-interface ZIOModule {
-  ZIO<?, ?, Unit> UNIT = ZIO.pure(Unit.unit());
-}
\ No newline at end of file
@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+interface ZIOModule {
+  // longest chain of functions composed in a single Map or MapError node
+  int MAX_FUSION = 128;
+
+  ZIO<?, ?, Unit> UNIT = ZIO.pure(Unit.unit());
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+abstract class ZIONode<R, E, A> implements ZIO<R, E, A> {
+
+  static final int PURE = 0;
+  static final int FAILURE = 1;
+  static final int FLAT_MAP = 2;
+  static final int FOLD = 3;
+  static final int MAP = 4;
+  static final int MAP_ERROR = 5;
+  static final int SWAP = 6;
+  static final int TASK = 7;
+  static final int ATTEMP = 8;
+  static final int ACCESS = 9;
+  static final int FORK = 10;
+  static final int ASYNC = 11;
+  static final int BLOCKING = 12;
+  static final int UNINTERRUPTIBLE = 13;
+  static final int BRACKET = 14;
+  static final int LOCAL = 15;
+  static final int GET_LOCAL = 16;
+  // frames only pushed by the run loop
+  static final int BRACKET_FRAME = 17;
+  static final int RESTORE = 18;
+
+  // the run loop switches on this tag instead of calling virtual methods of each node
+  final int tag;
+
+  ZIONode(int tag) {
+    this.tag = tag;
+  }
+}
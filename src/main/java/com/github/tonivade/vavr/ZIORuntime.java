@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static io.vavr.concurrent.Future.DEFAULT_EXECUTOR;
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.vavr.concurrent.Future;
+import io.vavr.concurrent.Promise;
+import io.vavr.control.Either;
+
+final class ZIORuntime {
+
+  private ZIORuntime() {}
+
+  static final Runnable NOOP = () -> {};
+
+  static final Executor BLOCKING_EXECUTOR = blockingExecutor();
+
+  static final HashedWheelTimer TIMER =
+      new HashedWheelTimer(HashedWheelTimer.TICK_NANOS, HashedWheelTimer.WHEEL_SIZE);
+
+  static volatile Supervisor supervisor;
+
+  static <R, E, A> Either<E, A> run(ZIO<R, E, A> effect, R env) {
+    var result = new FiberContext<>(env, DEFAULT_EXECUTOR, effect).runSync();
+    if (result.isFailure()) {
+      return sneakyThrow(result.getCause());
+    }
+    return result.get();
+  }
+
+  /*
+   * Starts a new fiber in the executor and completes a single promise with the result.
+   */
+  static <R, E, A> Future<Either<E, A>> runAsync(ZIO<R, E, A> effect, Executor executor, R env) {
+    Promise<Either<E, A>> promise = Promise.make(executor);
+    var fiber = new FiberContext<>(env, executor, effect);
+    fiber.observe(promise::complete);
+    fiber.start();
+    return promise.future();
+  }
+
+  /*
+   * Virtual threads when the jdk supports them, otherwise an elastic pool of daemon threads.
+   */
+  private static Executor blockingExecutor() {
+    try {
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      var counter = new AtomicInteger();
+      return Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "zio-blocking-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /*
+   * Runs the synchronous part of the program in the subscribing thread, the only rx operator is
+   * the single itself, completed when the fiber ends. Disposing the single interrupts the fiber.
+   */
+  static <R, E, A> Single<Either<E, A>> runSingle(ZIO<R, E, A> effect, R env) {
+    return Single.create(emitter -> {
+      var fiber = new FiberContext<>(env, DEFAULT_EXECUTOR, effect);
+      emitter.setCancellable(fiber::interruptNow);
+      fiber.observe(result -> {
+        if (result.isSuccess()) {
+          emitter.onSuccess(result.get());
+        } else {
+          emitter.tryOnError(result.getCause());
+        }
+      });
+      fiber.runInline();
+    });
+  }
+
+  /*
+   * Runs the effect with another environment in a child of the current fiber, started inline. An
+   * interruption of the current fiber interrupts the child and waits for it to end.
+   */
+  static <R, T, E, A> ZIO<R, E, A> provide(ZIO<T, E, A> effect, T env) {
+    requireNonNull(effect);
+    return ZIO.bracket(
+        new ZIO.Local<R, E, FiberContext<T, E, A>>(
+            fiber -> ((FiberContext<?, ?, ?>) fiber).child(env, effect)),
+        child -> new ZIO.Local<R, E, Unit>(fiber -> { child.runInline(); return Unit.unit(); })
+            .andThen(child.<R>join()),
+        child -> child.<R, E>interrupt());
+  }
+
+  /*
+   * A named effect reports to the supervisor installed when it is named, and without one it is
+   * the effect itself. The report is the release of a bracket, so a defect or an interruption is
+   * reported as a failure too.
+   */
+  static <R, E, A> ZIO<R, E, A> named(ZIO<R, E, A> effect, String name) {
+    requireNonNull(effect);
+    requireNonNull(name);
+    var current = supervisor;
+    if (current == null) {
+      return effect;
+    }
+    return ZIO.bracket(ZIO.<R, E, Timing>task(Timing::new),
+        timing -> effect.map(value -> { timing.failed = false; return value; }),
+        timing -> ZIO.<R, E, Unit>task(() -> {
+          current.onEffect(name, System.nanoTime() - timing.start, timing.failed);
+          return Unit.unit();
+        }));
+  }
+
+  static Throwable nonFatal(Throwable error) {
+    if (error instanceof InterruptedException) {
+      Thread.currentThread().interrupt();
+    }
+    if (error instanceof InterruptedException
+        || error instanceof LinkageError
+        || error instanceof ThreadDeath
+        || error instanceof VirtualMachineError) {
+      return sneakyThrow(error);
+    }
+    return error;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <X extends Throwable, T> T sneakyThrow(Throwable error) throws X {
+    throw (X) error;
+  }
+
+  // only touched by the fiber that runs the named effect
+  private static final class Timing {
+
+    private final long start = System.nanoTime();
+    private boolean failed = true;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * The fiber version of a count down latch: the fibers that await it are suspended on a promise,
+ * completed by the count down that reaches zero.
+ */
+public final class ZLatch {
+
+  private static final Try<Either<Nothing, Unit>> OPEN = Try.success(Either.right(unit()));
+
+  private final AtomicInteger count;
+  private final Promise<Nothing, Unit> open = Promise.make();
+
+  private ZLatch(int count) {
+    this.count = new AtomicInteger(count);
+    if (count == 0) {
+      open.completeNow(OPEN);
+    }
+  }
+
+  public <R, E> ZIO<R, E, Unit> countDown() {
+    return ZIO.task(() -> {
+      while (true) {
+        var current = count.get();
+        if (current == 0) {
+          return unit();
+        }
+        if (count.compareAndSet(current, current - 1)) {
+          if (current == 1) {
+            open.completeNow(OPEN);
+          }
+          return unit();
+        }
+      }
+    });
+  }
+
+  public <R, E> ZIO<R, E, Unit> await() {
+    return new ZIO.Async<>(
+        (env, callback) -> open.onComplete(result -> callback.accept(Try.success(Either.right(unit())))));
+  }
+
+  public <R, E> ZIO<R, E, Integer> count() {
+    return ZIO.task(count::get);
+  }
+
+  public static ZLatch of(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count should not be negative: " + count);
+    }
+    return new ZLatch(count);
+  }
+
+  @Override
+  public String toString() {
+    return "ZLatch(" + count.get() + ")";
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import io.vavr.Function1;
+import io.vavr.Function2;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * A recipe to build an environment from another one. Building a graph of layers shares a memo
+ * map, keyed by the identity of each layer, so a layer used by several others is built once, and
+ * every build registers its releases in the same scope, closed when the environment is no longer
+ * used: the layers are released in the reverse order of construction. The two sides of and are
+ * built in parallel, each one in its own fiber, and a failure of one side interrupts the build of
+ * the other one.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public final class ZLayer<RIn, E, ROut> {
+
+  private final Function2<MemoMap, Scope, ZIO<RIn, E, ROut>> build;
+
+  private ZLayer(Function2<MemoMap, Scope, ZIO<RIn, E, ROut>> build) {
+    this.build = build;
+  }
+
+  public <R> ZLayer<RIn, E, R> map(Function1<ROut, R> map) {
+    requireNonNull(map);
+    return new ZLayer<>((memo, scope) -> memo.get(this, scope).map(map));
+  }
+
+  public <F> ZLayer<RIn, F, ROut> mapError(Function1<E, F> map) {
+    requireNonNull(map);
+    return new ZLayer<>((memo, scope) -> memo.get(this, scope).mapError(map));
+  }
+
+  public <R> ZLayer<RIn, E, R> to(ZLayer<ROut, E, R> next) {
+    requireNonNull(next);
+    return new ZLayer<>((memo, scope) -> memo.get(this, scope)
+        .flatMap(env -> ZIORuntime.provide(memo.get(next, scope), env)));
+  }
+
+  public <R, T> ZLayer<RIn, E, T> and(ZLayer<RIn, E, R> other, Function2<ROut, R, T> combine) {
+    requireNonNull(other);
+    requireNonNull(combine);
+    return new ZLayer<>((memo, scope) -> ZIO.zipPar(memo.get(this, scope), memo.get(other, scope), combine));
+  }
+
+  public <R> ZLayer<RIn, E, Tuple2<ROut, R>> zip(ZLayer<RIn, E, R> other) {
+    return and(other, Tuple::of);
+  }
+
+  public ZManaged<RIn, E, ROut> toManaged() {
+    return ZManaged.fromScope(scope -> ZIO.<RIn, E, MemoMap>task(MemoMap::new).flatMap(memo -> memo.get(this, scope)));
+  }
+
+  public static <R, E, A> ZLayer<R, E, A> fromManaged(ZManaged<R, E, A> managed) {
+    requireNonNull(managed);
+    return new ZLayer<>((memo, scope) -> managed.reserve(scope));
+  }
+
+  public static <R, E, A> ZLayer<R, E, A> fromEffect(ZIO<R, E, A> effect) {
+    return fromManaged(ZManaged.fromEffect(effect));
+  }
+
+  public static <R, E, A> ZLayer<R, E, A> fromFunction(Function1<R, A> function) {
+    return fromEffect(ZIO.accessM(function.andThen(ZIO::pure)));
+  }
+
+  public static <R, E, A> ZLayer<R, E, A> succeed(A value) {
+    return fromEffect(ZIO.pure(value));
+  }
+
+  public static <R, E> ZLayer<R, E, R> identity() {
+    return fromFunction(Function1.identity());
+  }
+
+  /*
+   * The first fiber that needs a layer forks its build, the rest wait for the same result.
+   */
+  private static final class MemoMap {
+
+    private final ConcurrentHashMap<ZLayer, OneShot<Try<Either>>> layers = new ConcurrentHashMap<>();
+
+    private <R, E, A> ZIO<R, E, A> get(ZLayer<R, E, A> layer, Scope scope) {
+      return ZIO.accessM(env -> {
+        var building = new OneShot<Try<Either>>();
+        var existing = layers.putIfAbsent(layer, building);
+        if (existing != null) {
+          return await(existing);
+        }
+        // the leader owns the build, an interrupted leader interrupts it and waits for it to end
+        ZIO<R, E, Fiber<E, A>> start = layer.build.apply(this, scope).fork().map(fiber -> {
+          ((FiberContext<R, E, A>) fiber).observe(result -> building.complete((Try) result));
+          return fiber;
+        });
+        return ZIO.bracket(start, fiber -> await(building), fiber -> fiber.<R, E>interrupt());
+      });
+    }
+
+    private <R, E, A> ZIO<R, E, A> await(OneShot<Try<Either>> building) {
+      return new ZIO.Async<>((env, callback) -> building.onComplete((Consumer) callback));
+    }
+  }
+}
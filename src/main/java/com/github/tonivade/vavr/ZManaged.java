@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import io.vavr.Function1;
+
+/*
+ * A description of a resource: how to acquire it and how to release it. The acquisitions are
+ * registered in a scope that is opened by use and closed, with a bracket, when use ends in any
+ * way, so the composed resources are released in the reverse order even after an interruption.
+ */
+public final class ZManaged<R, E, A> {
+
+  private final Function1<Scope, ZIO<R, E, A>> reserve;
+
+  private ZManaged(Function1<Scope, ZIO<R, E, A>> reserve) {
+    this.reserve = requireNonNull(reserve);
+  }
+
+  public <B> ZManaged<R, E, B> map(Function1<A, B> map) {
+    requireNonNull(map);
+    return new ZManaged<>(scope -> reserve.apply(scope).map(map));
+  }
+
+  public <B> ZManaged<R, E, B> flatMap(Function1<A, ZManaged<R, E, B>> map) {
+    requireNonNull(map);
+    return new ZManaged<>(scope -> reserve.apply(scope).flatMap(value -> map.apply(value).reserve(scope)));
+  }
+
+  public <F> ZManaged<R, F, A> mapError(Function1<E, F> map) {
+    requireNonNull(map);
+    return new ZManaged<>(scope -> reserve.apply(scope).mapError(map));
+  }
+
+  public <B> ZIO<R, E, B> use(Function1<A, ZIO<R, E, B>> use) {
+    requireNonNull(use);
+    return ZIO.bracket(ZIO.task(Scope::new), scope -> reserve.apply(scope).flatMap(use), Scope::close);
+  }
+
+  public static <R, E, A> ZManaged<R, E, A> make(ZIO<R, E, A> acquire, Function1<A, ZIO<R, ?, ?>> release) {
+    requireNonNull(acquire);
+    requireNonNull(release);
+    return new ZManaged<>(scope -> acquire.flatMap(
+        value -> scope.<R, E>addOrRun(release.apply(value)).map(ignore -> value)).uninterruptible());
+  }
+
+  public static <R, E, A extends AutoCloseable> ZManaged<R, E, A> fromAutoCloseable(ZIO<R, E, A> acquire) {
+    return make(acquire, value -> ZIO.exec(value::close));
+  }
+
+  public static <R, E, A> ZManaged<R, E, A> fromEffect(ZIO<R, E, A> effect) {
+    requireNonNull(effect);
+    return new ZManaged<>(scope -> effect);
+  }
+
+  public static <R, E, A> ZManaged<R, E, A> succeed(A value) {
+    return fromEffect(ZIO.pure(value));
+  }
+
+  static <R, E, A> ZManaged<R, E, A> fromScope(Function1<Scope, ZIO<R, E, A>> reserve) {
+    return new ZManaged<>(reserve);
+  }
+
+  ZIO<R, E, A> reserve(Scope scope) {
+    return reserve.apply(scope);
+  }
+}
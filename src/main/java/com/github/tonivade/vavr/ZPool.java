@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static io.vavr.concurrent.Future.DEFAULT_EXECUTOR;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * A pool of managed resources. A checkout takes the most recently returned item, or allocates a
+ * new one below the max size, without taking any lock; when the pool is exhausted the fiber
+ * waits until an item is returned. The return of the item is registered in the scope of the
+ * borrower as soon as the item is handed over, so an interrupted borrower never leaks it. Items
+ * idle for longer than the idle timeout are released by a timer, keeping at least min items.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public final class ZPool<R, E, A> {
+
+  private static final long NEVER = -1;
+  private static final Object WAIT = new Object();
+
+  private final R env;
+  private final ZManaged<R, E, A> resource;
+  private final int min;
+  private final int max;
+  private final long idleTimeout;
+
+  // most recently returned first, so the oldest items are at the tail
+  private final ConcurrentLinkedDeque<Item<A>> idle = new ConcurrentLinkedDeque<>();
+  private final ConcurrentLinkedDeque<Waiter> waiters = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicInteger allocating = new AtomicInteger();
+
+  private volatile boolean closed;
+  private volatile HashedWheelTimer.Timeout sweeper;
+
+  private ZPool(R env, ZManaged<R, E, A> resource, int min, int max, long idleTimeout) {
+    this.env = env;
+    this.resource = resource;
+    this.min = min;
+    this.max = max;
+    this.idleTimeout = idleTimeout;
+  }
+
+  public ZManaged<R, E, A> get() {
+    return ZManaged.fromScope(this::checkout);
+  }
+
+  public <T, F> ZIO<T, F, Integer> size() {
+    return ZIO.task(size::get);
+  }
+
+  public <T, F> ZIO<T, F, Integer> available() {
+    return ZIO.task(idle::size);
+  }
+
+  public static <R, E, A> ZManaged<R, E, ZPool<R, E, A>> make(ZManaged<R, E, A> resource, int max) {
+    return make(resource, 0, max, NEVER);
+  }
+
+  public static <R, E, A> ZManaged<R, E, ZPool<R, E, A>> make(
+      ZManaged<R, E, A> resource, int min, int max, Duration idleTimeout) {
+    var timeout = HashedWheelTimer.toNanos(requireNonNull(idleTimeout));
+    if (timeout <= 0) {
+      throw new IllegalArgumentException("idle timeout should be greater than zero: " + idleTimeout);
+    }
+    return make(resource, min, max, timeout);
+  }
+
+  @Override
+  public String toString() {
+    return "ZPool(" + idle.size() + "/" + size.get() + "/" + max + ")";
+  }
+
+  private static <R, E, A> ZManaged<R, E, ZPool<R, E, A>> make(
+      ZManaged<R, E, A> resource, int min, int max, long idleTimeout) {
+    requireNonNull(resource);
+    if (max < 1 || min < 0 || min > max) {
+      throw new IllegalArgumentException("invalid pool size: min=" + min + ", max=" + max);
+    }
+    ZIO<R, E, ZPool<R, E, A>> acquire = ZIO.accessM(env -> {
+      var pool = new ZPool<>(env, resource, min, max, idleTimeout);
+      return pool.fill(min).foldM(
+          error -> pool.<E>close().andThen(ZIO.failure(error)),
+          ignore -> ZIO.task(() -> {
+            pool.scheduleSweep();
+            return pool;
+          }));
+    });
+    return ZManaged.make(acquire, pool -> pool.<Nothing>close());
+  }
+
+  private ZIO<R, E, Unit> fill(int count) {
+    if (count == 0) {
+      return ZIO.unit();
+    }
+    size.incrementAndGet();
+    return allocate().flatMap(item -> {
+      idle.offerFirst(item);
+      return fill(count - 1);
+    });
+  }
+
+  /*
+   * The fast path runs masked, so an item taken from the idle list, or allocated, is always
+   * registered in the scope of the borrower; only the wait for a returned item is interruptible.
+   */
+  private ZIO<R, E, A> checkout(Scope scope) {
+    return ZIO.<R, E, Object>task(() -> {
+      if (closed) {
+        throw new IllegalStateException("pool already closed");
+      }
+      var item = idle.pollFirst();
+      if (item != null) {
+        lend(item, scope);
+        return item.value;
+      }
+      return reserveSlot() ? null : WAIT;
+    }).flatMap(next -> next == null ? allocate().map(item -> {
+      lend(item, scope);
+      return (Object) item.value;
+    }) : ZIO.<R, E, Object>pure(next)).uninterruptible()
+        .flatMap(next -> next == WAIT ? suspend(scope) : ZIO.pure((A) next));
+  }
+
+  private ZIO<R, E, A> suspend(Scope scope) {
+    return new ZIO.Async<>((env, callback) -> {
+      var waiter = new Waiter(scope, (Consumer) callback);
+      waiters.offer(waiter);
+      drain();
+      return () -> {
+        if (waiter.cancel()) {
+          waiters.remove(waiter);
+        }
+      };
+    });
+  }
+
+  private ZIO<R, E, Item<A>> allocate() {
+    return ZIO.<R, E, Scope>task(Scope::new).flatMap(scope -> resource.reserve(scope).foldM(
+        error -> {
+          size.decrementAndGet();
+          return scope.<R, E>close().andThen(ZIO.failure(error));
+        },
+        value -> ZIO.pure(new Item<>(value, scope))));
+  }
+
+  /*
+   * Allocates an item for the waiters in its own fiber, when the pool is empty but below the max
+   * size, because the waiters cannot allocate it without leaving their interruptible wait.
+   */
+  private ZIO<R, E, Unit> allocateIdle() {
+    return allocate().foldM(
+        error -> ZIO.task(() -> {
+          allocating.decrementAndGet();
+          var waiter = waiters.poll();
+          if (waiter != null) {
+            waiter.fail(Try.success(Either.left(error)));
+          }
+          drain();
+          return Unit.unit();
+        }),
+        item -> ZIO.task(() -> {
+          allocating.decrementAndGet();
+          recycle(item);
+          return Unit.unit();
+        }));
+  }
+
+  private boolean reserveSlot() {
+    while (true) {
+      var current = size.get();
+      if (current >= max) {
+        return false;
+      }
+      if (size.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void lend(Item<A> item, Scope scope) {
+    if (!scope.add(ZIO.task(() -> { recycle(item); return Unit.unit(); }))) {
+      recycle(item);
+    }
+  }
+
+  private void recycle(Item<A> item) {
+    item.lastUsed = System.nanoTime();
+    idle.offerFirst(item);
+    drain();
+    if (closed && idle.remove(item)) {
+      start(destroy(item));
+    }
+  }
+
+  private void drain() {
+    while (!waiters.isEmpty()) {
+      var item = idle.pollFirst();
+      if (item == null) {
+        if (!closed && allocating.get() < waiters.size() && reserveSlot()) {
+          allocating.incrementAndGet();
+          start(allocateIdle());
+          continue;
+        }
+        return;
+      }
+      var waiter = waiters.poll();
+      if (waiter == null || !waiter.complete(item)) {
+        idle.offerFirst(item);
+      }
+    }
+  }
+
+  private <F> ZIO<R, F, Unit> destroy(Item<A> item) {
+    return item.scope.<R, F>close().andThen(ZIO.task(() -> {
+      size.decrementAndGet();
+      drain();
+      return Unit.unit();
+    }));
+  }
+
+  private <F> ZIO<R, F, Unit> destroyAll(Iterable<Item<A>> items) {
+    var result = ZIO.<R, F>unit();
+    for (var item : items) {
+      result = result.andThen(this.<F>destroy(item));
+    }
+    return result;
+  }
+
+  private Unit scheduleSweep() {
+    if (idleTimeout != NEVER && !closed) {
+      sweeper = ZIORuntime.TIMER.schedule(
+          Math.max(idleTimeout >> 1, HashedWheelTimer.TICK_NANOS), () -> start(sweep()));
+    }
+    return Unit.unit();
+  }
+
+  private ZIO<R, Nothing, Unit> sweep() {
+    return ZIO.<R, Nothing, ArrayList<Item<A>>>task(() -> {
+      var expired = new ArrayList<Item<A>>();
+      var excess = size.get() - min;
+      var now = System.nanoTime();
+      for (var iterator = idle.descendingIterator(); iterator.hasNext() && expired.size() < excess; ) {
+        var item = iterator.next();
+        if (now - item.lastUsed >= idleTimeout && idle.removeLastOccurrence(item)) {
+          expired.add(item);
+        }
+      }
+      return expired;
+    }).flatMap(this::<Nothing>destroyAll).andThen(ZIO.task(this::scheduleSweep));
+  }
+
+  private <F> ZIO<R, F, Unit> close() {
+    return ZIO.<R, F, ArrayList<Item<A>>>task(() -> {
+      closed = true;
+      var current = sweeper;
+      if (current != null) {
+        current.cancel();
+      }
+      for (var waiter = waiters.poll(); waiter != null; waiter = waiters.poll()) {
+        waiter.fail(Try.failure(new IllegalStateException("pool already closed")));
+      }
+      var items = new ArrayList<Item<A>>();
+      for (var item = idle.pollFirst(); item != null; item = idle.pollFirst()) {
+        items.add(item);
+      }
+      return items;
+    }).flatMap(this::<F>destroyAll);
+  }
+
+  private void start(ZIO<R, ?, Unit> effect) {
+    new FiberContext<>(env, DEFAULT_EXECUTOR, effect).start();
+  }
+
+  private static final class Item<A> {
+
+    private final A value;
+    private final Scope scope;
+    private volatile long lastUsed = System.nanoTime();
+
+    private Item(A value, Scope scope) {
+      this.value = value;
+      this.scope = scope;
+    }
+  }
+
+  private static final int WAITING = 0;
+  private static final int DONE = 1;
+  private static final int CANCELLED = 2;
+
+  private final class Waiter extends AtomicInteger {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Scope scope;
+    private final Consumer<Try<Either<E, A>>> callback;
+
+    private Waiter(Scope scope, Consumer<Try<Either<E, A>>> callback) {
+      this.scope = scope;
+      this.callback = callback;
+    }
+
+    private boolean complete(Item<A> item) {
+      if (compareAndSet(WAITING, DONE)) {
+        lend(item, scope);
+        callback.accept(Try.success(Either.right(item.value)));
+        return true;
+      }
+      return false;
+    }
+
+    private void fail(Try<Either<E, A>> result) {
+      if (compareAndSet(WAITING, DONE)) {
+        callback.accept(result);
+      }
+    }
+
+    private boolean cancel() {
+      return compareAndSet(WAITING, CANCELLED);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vavr.Function1;
+import io.vavr.Function2;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.LinkedHashMap;
+import io.vavr.collection.LinkedHashSet;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Set;
+import io.vavr.collection.Vector;
+import io.vavr.control.Option;
+
+/*
+ * A query runs in rounds. Each step either ends with a value, or is blocked on the requests that
+ * it needs, with the continuation to run once they are fetched. zipWith, and so foreach and
+ * collectAll, step both sides and merge their requests, while flatMap has to wait for the left
+ * side, so all the lookups made in the same round of a program are sent together: one getAll by
+ * data source with the keys deduplicated. The results are kept in a cache for the whole run, and
+ * a key already requested in the run is never fetched again. The requests of a source carry the
+ * mapError applied above them, so a failed getAll is converted to the error type of the query.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public final class ZQuery<R, E, A> {
+
+  private final Function1<Cache, ZIO<R, E, Result<R, E, A>>> step;
+
+  private ZQuery(Function1<Cache, ZIO<R, E, Result<R, E, A>>> step) {
+    this.step = step;
+  }
+
+  public <B> ZQuery<R, E, B> map(Function1<A, B> map) {
+    requireNonNull(map);
+    return new ZQuery<>(cache -> step.apply(cache).map(result -> result.map(map)));
+  }
+
+  public <B> ZQuery<R, E, B> flatMap(Function1<A, ZQuery<R, E, B>> map) {
+    requireNonNull(map);
+    return new ZQuery<>(cache -> step.apply(cache).flatMap(result -> {
+      if (result.isDone()) {
+        return map.apply(result.value).step.apply(cache);
+      }
+      return ZIO.pure(Result.blocked(result.requests, result.continuation.flatMap(map)));
+    }));
+  }
+
+  public <F> ZQuery<R, F, A> mapError(Function1<E, F> map) {
+    requireNonNull(map);
+    return new ZQuery<>(cache -> step.apply(cache).mapError(map).map(result -> {
+      if (result.isDone()) {
+        return (Result<R, F, A>) (Result) result;
+      }
+      return Result.blocked(result.requests.mapValues(batch -> batch.mapError(map)), result.continuation.mapError(map));
+    }));
+  }
+
+  public <B, C> ZQuery<R, E, C> zipWith(ZQuery<R, E, B> other, Function2<A, B, C> mapper) {
+    requireNonNull(other);
+    requireNonNull(mapper);
+    return new ZQuery<>(cache -> step.apply(cache).flatMap(left -> other.step.apply(cache).map(right -> {
+      if (left.isDone() && right.isDone()) {
+        return Result.done(mapper.apply(left.value, right.value));
+      }
+      if (left.isDone()) {
+        return Result.blocked(right.requests, right.continuation.map(b -> mapper.apply(left.value, b)));
+      }
+      if (right.isDone()) {
+        return Result.blocked(left.requests, left.continuation.map(a -> mapper.apply(a, right.value)));
+      }
+      return Result.blocked(merge(left.requests, right.requests),
+          left.continuation.zipWith(right.continuation, mapper));
+    })));
+  }
+
+  public ZIO<R, E, A> run() {
+    return ZIO.<R, E, Cache>task(Cache::new).flatMap(this::run);
+  }
+
+  public static <R, E, K, V> ZQuery<R, E, Option<V>> fromRequest(K key, DataSource<R, E, K, V> source) {
+    requireNonNull(key);
+    requireNonNull(source);
+    return new ZQuery<>(cache -> ZIO.task(() -> {
+      var slots = cache.slots(source);
+      var slot = new Slot();
+      var existing = slots.putIfAbsent(key, slot);
+      if (existing == null) {
+        return Result.blocked(LinkedHashMap.of(source, new Batch(LinkedHashSet.of(key), Function1.identity())), read(slot));
+      }
+      if (existing.done) {
+        return Result.done((Option<V>) existing.value);
+      }
+      // requested by another part of the same round
+      return Result.blocked(LinkedHashMap.empty(), read(existing));
+    }));
+  }
+
+  public static <R, E, A> ZQuery<R, E, A> fromEffect(ZIO<R, E, A> effect) {
+    requireNonNull(effect);
+    return new ZQuery<>(cache -> effect.map(Result::done));
+  }
+
+  public static <R, E, A> ZQuery<R, E, A> succeed(A value) {
+    return fromEffect(ZIO.pure(value));
+  }
+
+  public static <R, E, A> ZQuery<R, E, A> fail(E error) {
+    return fromEffect(ZIO.failure(error));
+  }
+
+  public static <R, E, A, B> ZQuery<R, E, Seq<B>> foreach(Iterable<A> items, Function1<A, ZQuery<R, E, B>> mapper) {
+    requireNonNull(mapper);
+    return collectAll(Vector.ofAll(items).map(mapper));
+  }
+
+  public static <R, E, A> ZQuery<R, E, Seq<A>> collectAll(Iterable<ZQuery<R, E, A>> queries) {
+    var vector = Vector.ofAll(queries);
+    if (vector.isEmpty()) {
+      return succeed(Vector.empty());
+    }
+    return collectAll(vector, 0, vector.size());
+  }
+
+  // a balanced tree of zipWith, so the depth of the steps grows with the log of the size
+  private static <R, E, A> ZQuery<R, E, Seq<A>> collectAll(Vector<ZQuery<R, E, A>> queries, int from, int to) {
+    if (to - from == 1) {
+      return queries.get(from).map(Vector::of);
+    }
+    var middle = (from + to) >>> 1;
+    return collectAll(queries, from, middle).zipWith(collectAll(queries, middle, to), Seq::appendAll);
+  }
+
+  private ZIO<R, E, A> run(Cache cache) {
+    return step.apply(cache).flatMap(result -> {
+      if (result.isDone()) {
+        return ZIO.pure(result.value);
+      }
+      return ZQuery.<R, E>fetch(cache, result.requests).andThen(result.continuation.run(cache));
+    });
+  }
+
+  private static <R, E> ZIO<R, E, Unit> fetch(Cache cache, Map<DataSource, Batch> requests) {
+    var batches = requests.toVector().flatMap(entry -> {
+      var size = entry._1.batchSize();
+      if (entry._2.keys.size() <= size) {
+        return Vector.of(entry);
+      }
+      return entry._2.keys.grouped(size).map(keys -> Tuple.of(entry._1, new Batch(keys, entry._2.error)));
+    });
+    if (batches.isEmpty()) {
+      return ZIO.unit();
+    }
+    return ZIO.<R, E, Tuple2<DataSource, Batch>, Unit>foreachParN(batches.size(), batches,
+        batch -> ((DataSource<R, Object, Object, Object>) batch._1).getAll(batch._2.keys).map(values -> {
+          var slots = cache.slots(batch._1);
+          for (var key : batch._2.keys) {
+            slots.get(key).complete(values.get(key));
+          }
+          return Unit.unit();
+        }).mapError((Function1<Object, E>) batch._2.error)).map(ignore -> Unit.unit());
+  }
+
+  private static <R, E, V> ZQuery<R, E, Option<V>> read(Slot slot) {
+    return new ZQuery<>(cache -> ZIO.task(() -> Result.done((Option<V>) slot.value)));
+  }
+
+  private static Map<DataSource, Batch> merge(Map<DataSource, Batch> left, Map<DataSource, Batch> right) {
+    if (left.isEmpty()) {
+      return right;
+    }
+    if (right.isEmpty()) {
+      return left;
+    }
+    return left.merge(right, Batch::union);
+  }
+
+  private static final class Result<R, E, A> {
+
+    private final A value;
+    private final Map<DataSource, Batch> requests;
+    private final ZQuery<R, E, A> continuation;
+
+    private Result(A value, Map<DataSource, Batch> requests, ZQuery<R, E, A> continuation) {
+      this.value = value;
+      this.requests = requests;
+      this.continuation = continuation;
+    }
+
+    private boolean isDone() {
+      return continuation == null;
+    }
+
+    private <B> Result<R, E, B> map(Function1<A, B> map) {
+      return isDone() ? done(map.apply(value)) : blocked(requests, continuation.map(map));
+    }
+
+    private static <R, E, A> Result<R, E, A> done(A value) {
+      return new Result<>(value, null, null);
+    }
+
+    private static <R, E, A> Result<R, E, A> blocked(Map<DataSource, Batch> requests, ZQuery<R, E, A> continuation) {
+      return new Result<>(null, requests, continuation);
+    }
+  }
+
+  /*
+   * The keys requested to a source, and the conversion of its errors to the error type of the
+   * query that made them. The keys of both sides of a zipWith are merged keeping the conversion of
+   * the left side, since any of them gives a valid error of the query.
+   */
+  private static final class Batch {
+
+    private final Set<Object> keys;
+    private final Function1<Object, Object> error;
+
+    private Batch(Set<Object> keys, Function1<?, ?> error) {
+      this.keys = keys;
+      this.error = (Function1<Object, Object>) error;
+    }
+
+    private Batch mapError(Function1<?, ?> map) {
+      return new Batch(keys, error.andThen((Function1<Object, Object>) map));
+    }
+
+    private Batch union(Batch other) {
+      return new Batch(keys.union(other.keys), error);
+    }
+  }
+
+  private static final class Cache {
+
+    private final ConcurrentHashMap<DataSource, ConcurrentHashMap<Object, Slot>> sources = new ConcurrentHashMap<>();
+
+    private ConcurrentHashMap<Object, Slot> slots(DataSource source) {
+      return sources.computeIfAbsent(source, ignore -> new ConcurrentHashMap<>());
+    }
+  }
+
+  private static final class Slot {
+
+    private volatile Object value;
+    private volatile boolean done;
+
+    private void complete(Option<?> result) {
+      value = result;
+      done = true;
+    }
+  }
+}
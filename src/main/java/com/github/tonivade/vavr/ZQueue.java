@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+
+/*
+ * Bounded queue on top of a lock-free ring buffer. The fast paths only touch the ring buffer; a
+ * fiber that finds it empty, or full with back pressure, registers a waiter and suspends, and
+ * every operation that frees space or adds an element hands elements to the pending waiters.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public final class ZQueue<A> {
+
+  private static final int BACK_PRESSURE = 0;
+  private static final int DROPPING = 1;
+  private static final int SLIDING = 2;
+
+  private final RingBuffer<A> ring;
+  private final int strategy;
+
+  private final ConcurrentLinkedDeque<Taker<A>> takers = new ConcurrentLinkedDeque<>();
+  private final ConcurrentLinkedDeque<Putter<A>> putters = new ConcurrentLinkedDeque<>();
+
+  private final ZIO<?, ?, A> take;
+
+  private ZQueue(int capacity, int strategy) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity should be greater than zero: " + capacity);
+    }
+    this.ring = new RingBuffer<>(capacity);
+    this.strategy = strategy;
+    this.take = ZIO.task(this::poll).flatMap(item -> item != null ? ZIO.pure(item) : suspendTake());
+  }
+
+  public <R, E> ZIO<R, E, Boolean> offer(A item) {
+    requireNonNull(item);
+    return ZIO.<R, E, Boolean>task(() -> tryOffer(item))
+        .flatMap(offered -> offered || strategy != BACK_PRESSURE ? ZIO.pure(offered) : suspendOffer(item));
+  }
+
+  public <R, E> ZIO<R, E, Boolean> offerAll(Iterable<? extends A> items) {
+    var chunk = Chunk.<A>ofAll(items);
+    chunk.forEach(Objects::requireNonNull);
+    return offerAll(chunk, 0, true);
+  }
+
+  public <R, E> ZIO<R, E, A> take() {
+    return (ZIO<R, E, A>) take;
+  }
+
+  public <R, E> ZIO<R, E, Chunk<A>> takeUpTo(int max) {
+    return ZIO.task(() -> pollUpTo(max));
+  }
+
+  public <R, E> ZIO<R, E, Chunk<A>> takeAll() {
+    return takeUpTo(Integer.MAX_VALUE);
+  }
+
+  public <R, E> ZIO<R, E, Integer> size() {
+    return ZIO.task(ring::size);
+  }
+
+  public int capacity() {
+    return ring.capacity();
+  }
+
+  public static <A> ZQueue<A> bounded(int capacity) {
+    return new ZQueue<>(capacity, BACK_PRESSURE);
+  }
+
+  public static <A> ZQueue<A> dropping(int capacity) {
+    return new ZQueue<>(capacity, DROPPING);
+  }
+
+  public static <A> ZQueue<A> sliding(int capacity) {
+    return new ZQueue<>(capacity, SLIDING);
+  }
+
+  @Override
+  public String toString() {
+    return "ZQueue(" + ring.size() + "/" + ring.capacity() + ")";
+  }
+
+  private <R, E> ZIO<R, E, Boolean> offerAll(Chunk<A> items, int from, boolean all) {
+    return ZIO.<R, E, Integer>task(() -> {
+      var index = from;
+      while (index < items.size() && tryOffer(items.get(index))) {
+        index++;
+      }
+      return index;
+    }).flatMap(index -> {
+      if (index == items.size()) {
+        return ZIO.pure(all);
+      }
+      if (strategy == DROPPING) {
+        return this.<R, E>offerAll(items, index + 1, false);
+      }
+      return this.<R, E>suspendOffer(items.get(index)).flatMap(ignore -> offerAll(items, index + 1, all));
+    });
+  }
+
+  private boolean tryOffer(A item) {
+    var offered = ring.offer(item);
+    if (!offered && strategy == SLIDING) {
+      do {
+        ring.poll();
+      } while (!ring.offer(item));
+      offered = true;
+    }
+    if (offered && !takers.isEmpty()) {
+      drain();
+    }
+    return offered;
+  }
+
+  private A poll() {
+    var item = ring.poll();
+    if (item != null && !putters.isEmpty()) {
+      drain();
+    }
+    return item;
+  }
+
+  private Chunk<A> pollUpTo(int max) {
+    var buffer = new Object[Math.max(0, Math.min(max, ring.size()))];
+    int size = 0;
+    while (size < buffer.length) {
+      var item = ring.poll();
+      if (item == null) {
+        break;
+      }
+      buffer[size++] = item;
+    }
+    if (size > 0 && !putters.isEmpty()) {
+      drain();
+    }
+    return Chunk.wrap(buffer, size);
+  }
+
+  private <R, E> ZIO<R, E, A> suspendTake() {
+    return new ZIO.Async<>((env, callback) -> {
+      var taker = new Taker<A>((Consumer) callback);
+      takers.offer(taker);
+      drain();
+      return () -> {
+        if (taker.cancel()) {
+          takers.remove(taker);
+        } else {
+          // the element was given to a fiber that was interrupted before it was resumed
+          reoffer(taker.item);
+        }
+      };
+    });
+  }
+
+  private <R, E> ZIO<R, E, Boolean> suspendOffer(A item) {
+    return new ZIO.Async<>((env, callback) -> {
+      var putter = new Putter<>(item, (Consumer) callback);
+      putters.offer(putter);
+      drain();
+      return () -> {
+        if (putter.cancel()) {
+          putters.remove(putter);
+        }
+      };
+    });
+  }
+
+  private void reoffer(A item) {
+    if (!tryOffer(item)) {
+      if (strategy == BACK_PRESSURE) {
+        putters.offerFirst(new Putter<>(item, null));
+        drain();
+      }
+    }
+  }
+
+  /*
+   * Moves elements from the pending putters to the ring buffer, and from the ring buffer to the
+   * pending takers, while there is something to do. A waiter taken from the deque that cannot be
+   * completed yet is put back at the front, so the order is kept.
+   */
+  private void drain() {
+    while (true) {
+      var progress = false;
+      if (ring.hasNext()) {
+        var taker = takers.poll();
+        if (taker != null) {
+          progress = true;
+          var item = ring.poll();
+          if (item == null) {
+            takers.offerFirst(taker);
+          } else if (!taker.complete(item)) {
+            reoffer(item);
+          }
+        }
+      }
+      if (!ring.isFull()) {
+        var putter = putters.poll();
+        if (putter != null) {
+          progress = true;
+          // claimed first, so a putter cancelled meanwhile never gets its element offered
+          if (putter.claim()) {
+            if (ring.offer(putter.item)) {
+              putter.complete();
+            } else {
+              putter.release();
+              putters.offerFirst(putter);
+            }
+          }
+        }
+      }
+      if (!progress) {
+        return;
+      }
+    }
+  }
+
+  private static final int WAITING = 0;
+  private static final int DONE = 1;
+  private static final int CANCELLED = 2;
+  private static final int TAKEN = 3;
+
+  private static final class Taker<A> extends AtomicInteger {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Consumer<Try<Either<?, A>>> callback;
+    private volatile A item;
+
+    private Taker(Consumer<Try<Either<?, A>>> callback) {
+      this.callback = callback;
+    }
+
+    private boolean complete(A value) {
+      item = value;
+      if (compareAndSet(WAITING, DONE)) {
+        callback.accept(Try.success(Either.right(value)));
+        return true;
+      }
+      return false;
+    }
+
+    private boolean cancel() {
+      return compareAndSet(WAITING, CANCELLED);
+    }
+  }
+
+  private static final class Putter<A> extends AtomicInteger {
+
+    private static final long serialVersionUID = 1L;
+
+    private final A item;
+    private final Consumer<Try<Either<?, Boolean>>> callback;
+
+    private Putter(A item, Consumer<Try<Either<?, Boolean>>> callback) {
+      this.item = item;
+      this.callback = callback;
+    }
+
+    private boolean claim() {
+      return compareAndSet(WAITING, TAKEN);
+    }
+
+    private void release() {
+      set(WAITING);
+    }
+
+    private void complete() {
+      set(DONE);
+      if (callback != null) {
+        callback.accept(Try.success(Either.right(true)));
+      }
+    }
+
+    // waits while the putter is claimed, it is only for the time of one offer to the ring buffer
+    private boolean cancel() {
+      while (true) {
+        if (compareAndSet(WAITING, CANCELLED)) {
+          return true;
+        }
+        if (get() != TAKEN) {
+          return false;
+        }
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
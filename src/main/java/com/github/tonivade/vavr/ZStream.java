@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Unit.unit;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import io.reactivex.Flowable;
+import io.vavr.Function0;
+import io.vavr.Function1;
+import io.vavr.Function2;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+/*
+ * A stream is a description: running it creates the state of that run and returns a pull, an
+ * effect that returns the next chunk or fails with None at the end. The consumer pulls only when
+ * it needs more elements, so the memory is bounded by the chunks in flight. Consecutive maps and
+ * filters are fused in a single function applied in one pass over each chunk. A run has a scope,
+ * closed when the consumer is done, even if it stops before the end, where the stages register
+ * the release of what they keep running between pulls.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public final class ZStream<R, E, A> {
+
+  static final int CHUNK_SIZE = Integer.getInteger("vavr.zio.stream.chunkSize", 1024);
+
+  private static final Object SKIP = new Object();
+
+  private final Function1<Scope, ZIO<R, E, ZIO<R, Option<E>, Chunk<Object>>>> process;
+  private final Function1<Object, Object> stage;
+
+  private ZStream(Function1<Scope, ? extends ZIO<R, E, ? extends ZIO<R, Option<E>, ? extends Chunk<?>>>> process,
+      Function1<Object, Object> stage) {
+    this.process = (Function1) requireNonNull(process);
+    this.stage = stage;
+  }
+
+  public <B> ZStream<R, E, B> map(Function1<A, B> mapper) {
+    requireNonNull(mapper);
+    var current = stage;
+    if (current == null) {
+      return new ZStream<>(process, (Function1) mapper);
+    }
+    return new ZStream<>(process, value -> {
+      var result = current.apply(value);
+      return result == SKIP ? SKIP : mapper.apply((A) result);
+    });
+  }
+
+  public ZStream<R, E, A> filter(Predicate<A> predicate) {
+    requireNonNull(predicate);
+    var current = stage;
+    return new ZStream<>(process, value -> {
+      var result = current == null ? value : current.apply(value);
+      return result != SKIP && predicate.test((A) result) ? result : SKIP;
+    });
+  }
+
+  public <B> ZStream<R, E, B> mapM(Function1<A, ZIO<R, E, B>> mapper) {
+    requireNonNull(mapper);
+    return fromScoped(scope -> pull(scope).map(
+        pull -> pull.flatMap(chunk -> mapChunk(chunk, mapper, new Object[chunk.size()], 0))));
+  }
+
+  public <B> ZStream<R, E, B> mapMPar(int parallelism, Function1<A, ZIO<R, E, B>> mapper) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism should be greater than zero: " + parallelism);
+    }
+    requireNonNull(mapper);
+    return fromScoped(scope -> pull(scope).flatMap(pull -> {
+      var mapping = new ParMapping<>(parallelism, pull, mapper);
+      return scope.<R, E>addOrRun(ZIO.task(mapping::interrupt)).map(ignore -> mapping.pull());
+    }));
+  }
+
+  public ZStream<R, E, Chunk<A>> grouped(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size should be greater than zero: " + size);
+    }
+    return fromScoped(scope -> pull(scope).map(pull -> new Grouping<>(size, pull).pull()));
+  }
+
+  public ZStream<R, E, A> take(long n) {
+    return fromScoped(scope -> pull(scope).map(pull -> {
+      var remaining = new AtomicLong(n);
+      return ZIO.<R, Option<E>, Long>task(remaining::get).flatMap(left -> left <= 0 ? end() : pull.map(chunk -> {
+        var taken = chunk.take((int) Math.min(left, chunk.size()));
+        remaining.addAndGet(-taken.size());
+        return taken;
+      }));
+    }));
+  }
+
+  public ZStream<R, E, A> merge(ZStream<R, E, A> other) {
+    requireNonNull(other);
+    return fromScoped(scope -> pull(scope).flatMap(left -> other.pull(scope).flatMap(right -> {
+      var merging = new Merging<>(left, right);
+      return scope.<R, E>addOrRun(ZIO.task(merging::interrupt)).map(ignore -> merging.pull());
+    })));
+  }
+
+  public <B> ZIO<R, E, B> fold(B zero, Function2<B, A, B> combinator) {
+    requireNonNull(combinator);
+    return run(pull -> fold(pull, zero, combinator));
+  }
+
+  public ZIO<R, E, Unit> foreach(Function1<A, ? extends ZIO<R, E, ?>> action) {
+    requireNonNull(action);
+    return run(pull -> foreach(pull, action));
+  }
+
+  public ZIO<R, E, Chunk<A>> runCollect() {
+    return run(pull -> collect(pull, new ArrayList<>())).map(Chunk::ofAll);
+  }
+
+  public Flowable<Either<E, A>> toFlowable(R env) {
+    return Flowable.fromPublisher(subscriber -> {
+      var scope = new Scope();
+      subscriber.onSubscribe(new StreamSubscription<>(env, pull(scope), scope, subscriber));
+    });
+  }
+
+  public static <R, E, A> ZStream<R, E, A> empty() {
+    return fromChunk(Chunk.empty());
+  }
+
+  @SafeVarargs
+  public static <R, E, A> ZStream<R, E, A> of(A... values) {
+    var array = new Object[values.length];
+    for (int i = 0; i < values.length; i++) {
+      array[i] = values[i];
+    }
+    return fromChunk(Chunk.wrap(array, array.length));
+  }
+
+  public static <R, E, A> ZStream<R, E, A> fromChunk(Chunk<A> chunk) {
+    requireNonNull(chunk);
+    return fromProcess(ZIO.<R, E, AtomicBoolean>task(AtomicBoolean::new).map(
+        done -> ZIO.from(() -> done.getAndSet(true) ? Either.left(Option.none()) : Either.right(chunk))));
+  }
+
+  public static <R, E, A> ZStream<R, E, A> fromIterable(Iterable<A> iterable) {
+    requireNonNull(iterable);
+    return fromIterator(iterable::iterator);
+  }
+
+  public static <R, E, A> ZStream<R, E, A> fromIterator(Function0<? extends Iterator<A>> iterator) {
+    requireNonNull(iterator);
+    return fromProcess(ZIO.<R, E, Iterator<A>>task(iterator::get).map(
+        current -> ZIO.from(() -> current.hasNext() ? Either.right(nextChunk(current)) : Either.left(Option.none()))));
+  }
+
+  public static <R, E> ZStream<R, E, Integer> range(int from, int to) {
+    return fromProcess(ZIO.<R, E, AtomicInteger>task(() -> new AtomicInteger(from)).map(
+        next -> ZIO.from(() -> next.get() < to ? Either.right(nextRange(next, to)) : Either.left(Option.none()))));
+  }
+
+  public static <R, E, A> ZStream<R, E, A> fromEffect(ZIO<R, E, A> effect) {
+    requireNonNull(effect);
+    return fromProcess(ZIO.<R, E, AtomicBoolean>task(AtomicBoolean::new).map(
+        done -> ZIO.<R, Option<E>, Boolean>task(() -> done.getAndSet(true))
+          .flatMap(ended -> ended ? end() : effect.<Option<E>>mapError(Option::some).map(Chunk::of))));
+  }
+
+  private <B> ZIO<R, E, B> run(Function1<ZIO<R, Option<E>, Chunk<A>>, ZIO<R, E, B>> consumer) {
+    return ZIO.bracket(ZIO.task(Scope::new), scope -> pull(scope).flatMap(consumer), Scope::close);
+  }
+
+  private ZIO<R, E, ZIO<R, Option<E>, Chunk<A>>> pull(Scope scope) {
+    var current = stage;
+    if (current == null) {
+      return (ZIO) process.apply(scope);
+    }
+    return process.apply(scope).map(pull -> pull.map(chunk -> chunk.transform(current, SKIP)));
+  }
+
+  private static <R, E, A> ZStream<R, E, A> fromProcess(ZIO<R, E, ZIO<R, Option<E>, Chunk<A>>> process) {
+    requireNonNull(process);
+    return new ZStream<>(scope -> process, null);
+  }
+
+  private static <R, E, A> ZStream<R, E, A> fromScoped(Function1<Scope, ZIO<R, E, ZIO<R, Option<E>, Chunk<A>>>> process) {
+    return new ZStream<>(process, null);
+  }
+
+  private static <R, E, A> ZIO<R, Option<E>, A> end() {
+    return ZIO.failure(Option.none());
+  }
+
+  private static <A> Chunk<A> nextChunk(Iterator<A> iterator) {
+    var buffer = new Object[CHUNK_SIZE];
+    int size = 0;
+    while (size < buffer.length && iterator.hasNext()) {
+      buffer[size++] = iterator.next();
+    }
+    return Chunk.wrap(buffer, size);
+  }
+
+  private static Chunk<Integer> nextRange(AtomicInteger next, int to) {
+    var start = next.get();
+    var values = new int[(int) Math.min(CHUNK_SIZE, (long) to - start)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = start + i;
+    }
+    next.set(start + values.length);
+    return Chunk.wrap(values, values.length);
+  }
+
+  private static <R, E, A, B> ZIO<R, Option<E>, Chunk<B>> mapChunk(
+      Chunk<A> chunk, Function1<A, ZIO<R, E, B>> mapper, Object[] results, int index) {
+    if (index == results.length) {
+      return ZIO.pure(Chunk.wrap(results, results.length));
+    }
+    return mapper.apply(chunk.get(index)).<Option<E>>mapError(Option::some).flatMap(value -> {
+      results[index] = value;
+      return mapChunk(chunk, mapper, results, index + 1);
+    });
+  }
+
+  private static <R, E, A, B> ZIO<R, E, B> fold(
+      ZIO<R, Option<E>, Chunk<A>> pull, B acc, Function2<B, A, B> combinator) {
+    return pull.foldM(
+        error -> error.isDefined() ? ZIO.failure(error.get()) : ZIO.pure(acc),
+        chunk -> fold(pull, chunk.foldLeft(acc, combinator), combinator));
+  }
+
+  private static <R, E, A> ZIO<R, E, Unit> foreach(
+      ZIO<R, Option<E>, Chunk<A>> pull, Function1<A, ? extends ZIO<R, E, ?>> action) {
+    return pull.foldM(
+        error -> error.isDefined() ? ZIO.failure(error.get()) : ZIO.unit(),
+        chunk -> foreach(chunk, 0, action).flatMap(ignore -> foreach(pull, action)));
+  }
+
+  private static <R, E, A> ZIO<R, E, Unit> foreach(Chunk<A> chunk, int index, Function1<A, ? extends ZIO<R, E, ?>> action) {
+    if (index == chunk.size()) {
+      return ZIO.unit();
+    }
+    return action.apply(chunk.get(index)).flatMap(ignore -> foreach(chunk, index + 1, action));
+  }
+
+  private static <R, E, A> ZIO<R, E, ArrayList<A>> collect(ZIO<R, Option<E>, Chunk<A>> pull, ArrayList<A> buffer) {
+    return pull.foldM(
+        error -> error.isDefined() ? ZIO.failure(error.get()) : ZIO.pure(buffer),
+        chunk -> {
+          chunk.forEach(buffer::add);
+          return collect(pull, buffer);
+        });
+  }
+
+  private static final class Grouping<R, E, A> {
+
+    private final int size;
+    private final ZIO<R, Option<E>, Chunk<A>> upstream;
+
+    private Object[] buffer;
+    private int count;
+    private boolean done;
+
+    private Grouping(int size, ZIO<R, Option<E>, Chunk<A>> upstream) {
+      this.size = size;
+      this.upstream = upstream;
+    }
+
+    private ZIO<R, Option<E>, Chunk<Chunk<A>>> pull() {
+      return ZIO.<R, Option<E>, Boolean>task(() -> done)
+          .flatMap(ended -> ended ? end() : upstream.foldM(this::flush, chunk -> ZIO.pure(add(chunk))));
+    }
+
+    private ZIO<R, Option<E>, Chunk<Chunk<A>>> flush(Option<E> error) {
+      if (error.isDefined()) {
+        return ZIO.failure(error);
+      }
+      done = true;
+      if (count == 0) {
+        return end();
+      }
+      var last = Chunk.<A>wrap(buffer, count);
+      buffer = null;
+      count = 0;
+      return ZIO.pure(Chunk.of(last));
+    }
+
+    private Chunk<Chunk<A>> add(Chunk<A> chunk) {
+      var groups = new Object[(count + chunk.size()) / size];
+      int n = 0;
+      for (var value : chunk) {
+        if (buffer == null) {
+          buffer = new Object[size];
+        }
+        buffer[count++] = value;
+        if (count == size) {
+          groups[n++] = Chunk.wrap(buffer, size);
+          buffer = null;
+          count = 0;
+        }
+      }
+      return Chunk.wrap(groups, n);
+    }
+  }
+
+  /*
+   * Keeps up to parallelism effects running in forked fibers, in the order of the elements, and
+   * pulls from upstream whenever there is room, so the chunks of upstream are not a barrier. A pull
+   * waits for the oldest effect and returns its value with the values of the next ones that are
+   * already done. An error of upstream is returned after the values of the elements before it. The
+   * fibers still running when the scope of the run is closed are interrupted.
+   */
+  private static final class ParMapping<R, E, A, B> {
+
+    private final int parallelism;
+    private final ZIO<R, Option<E>, Chunk<A>> upstream;
+    private final Function1<A, ZIO<R, E, B>> mapper;
+    private final Queue<FiberContext<R, E, B>> running = new ConcurrentLinkedQueue<>();
+
+    private int size;
+    private Chunk<A> buffer = Chunk.empty();
+    private int index;
+    private boolean done;
+    private Option<E> error = Option.none();
+
+    private ParMapping(int parallelism, ZIO<R, Option<E>, Chunk<A>> upstream, Function1<A, ZIO<R, E, B>> mapper) {
+      this.parallelism = parallelism;
+      this.upstream = upstream;
+      this.mapper = mapper;
+    }
+
+    private ZIO<R, Option<E>, Chunk<B>> pull() {
+      return fill().flatMap(ignore -> size == 0 ? ZIO.failure(error) : await(running.peek()).flatMap(this::next));
+    }
+
+    private ZIO<R, Option<E>, Unit> fill() {
+      return ZIO.<R, Option<E>, Boolean>task(() -> done || size == parallelism).flatMap(full -> {
+        if (full) {
+          return ZIO.unit();
+        }
+        if (index < buffer.size()) {
+          return mapper.apply(buffer.get(index++)).fork().<Option<E>>mapError(Option::some).flatMap(fiber -> {
+            running.add((FiberContext<R, E, B>) fiber);
+            size++;
+            return fill();
+          });
+        }
+        return upstream.foldM(this::end, chunk -> {
+          buffer = chunk;
+          index = 0;
+          return fill();
+        });
+      });
+    }
+
+    private ZIO<R, Option<E>, Unit> end(Option<E> error) {
+      this.error = error;
+      done = true;
+      buffer = Chunk.empty();
+      return ZIO.unit();
+    }
+
+    private ZIO<R, Option<E>, Try<Either<E, B>>> await(FiberContext<R, E, B> fiber) {
+      return new ZIO.Async<>((env, callback) -> {
+        fiber.observe(result -> callback.accept(Try.success(Either.right(result))));
+        return this::interrupt;
+      });
+    }
+
+    private ZIO<R, Option<E>, Chunk<B>> next(Try<Either<E, B>> result) {
+      running.poll();
+      size--;
+      if (result.isFailure()) {
+        interrupt();
+        return ZIORuntime.sneakyThrow(result.getCause());
+      }
+      var either = result.get();
+      if (either.isLeft()) {
+        interrupt();
+        return ZIO.failure(Option.some(either.getLeft()));
+      }
+      var values = new ArrayList<B>();
+      values.add(either.get());
+      // the values of the next fibers that are done, an error is left for the next pull
+      var completed = new Object[1];
+      for (var fiber = running.peek(); fiber != null && fiber.isDone(); fiber = running.peek()) {
+        fiber.observe(current -> completed[0] = current);
+        var current = (Try<Either<E, B>>) completed[0];
+        if (current.isFailure() || current.get().isLeft()) {
+          break;
+        }
+        running.poll();
+        size--;
+        values.add(current.get().get());
+      }
+      return ZIO.pure(Chunk.ofAll(values));
+    }
+
+    private Unit interrupt() {
+      for (var fiber : running) {
+        fiber.interruptNow();
+      }
+      return unit();
+    }
+  }
+
+  /*
+   * Pulls from both sides at the same time in forked fibers, the first chunk that arrives wins
+   * and the pull of the other side is kept running for the next time. The pulls still running
+   * when the scope of the run is closed are interrupted.
+   */
+  private static final class Merging<R, E, A> {
+
+    private final ZIO<R, Option<E>, Chunk<A>>[] upstreams;
+    private final FiberContext<R, Option<E>, Chunk<A>>[] running = new FiberContext[2];
+    private final boolean[] done = new boolean[2];
+
+    private Merging(ZIO<R, Option<E>, Chunk<A>> left, ZIO<R, Option<E>, Chunk<A>> right) {
+      this.upstreams = new ZIO[] { left, right };
+    }
+
+    private ZIO<R, Option<E>, Chunk<A>> pull() {
+      return ZIO.<R, Option<E>, Boolean>task(() -> done[0] && done[1]).flatMap(
+          ended -> ended ? end() : start(0).andThen(start(1)).andThen(race()).flatMap(this::next));
+    }
+
+    private ZIO<R, Option<E>, Unit> start(int side) {
+      return ZIO.<R, Option<E>, Boolean>task(() -> done[side] || running[side] != null).flatMap(
+          skip -> skip ? ZIO.unit() : upstreams[side].fork().map(fiber -> {
+            running[side] = (FiberContext) fiber;
+            return unit();
+          }));
+    }
+
+    private ZIO<R, Option<E>, Raced<E, A>> race() {
+      return new ZIO.Async<>((env, callback) -> {
+        var won = new AtomicBoolean();
+        for (int i = 0; i < running.length; i++) {
+          var fiber = running[i];
+          if (fiber != null) {
+            var side = i;
+            fiber.observe(result -> {
+              if (won.compareAndSet(false, true)) {
+                callback.accept(Try.success(Either.right(new Raced<>(side, result))));
+              }
+            });
+          }
+        }
+        return this::interrupt;
+      });
+    }
+
+    private ZIO<R, Option<E>, Chunk<A>> next(Raced<E, A> raced) {
+      running[raced.side] = null;
+      if (raced.result.isFailure()) {
+        interrupt();
+        return ZIORuntime.sneakyThrow(raced.result.getCause());
+      }
+      var either = raced.result.get();
+      if (either.isRight()) {
+        return ZIO.pure(either.get());
+      }
+      if (either.getLeft().isDefined()) {
+        interrupt();
+        return ZIO.failure(either.getLeft());
+      }
+      done[raced.side] = true;
+      return pull();
+    }
+
+    private Unit interrupt() {
+      for (var fiber : running) {
+        if (fiber != null) {
+          fiber.interruptNow();
+        }
+      }
+      return unit();
+    }
+  }
+
+  private static final class Raced<E, A> {
+
+    private final int side;
+    private final Try<Either<Option<E>, Chunk<A>>> result;
+
+    private Raced(int side, Try<Either<Option<E>, Chunk<A>>> result) {
+      this.side = side;
+      this.result = result;
+    }
+  }
+}
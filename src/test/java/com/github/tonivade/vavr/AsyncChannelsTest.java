@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NotYetConnectedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.control.Either;
+
+public class AsyncChannelsTest {
+
+  @Test
+  public void file() throws IOException {
+    Path file = Files.createTempFile("zio", ".txt");
+    try (var channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      var buffer = ByteBuffer.allocate(32);
+
+      var program = AsyncChannels.<Nothing>write(channel, ByteBuffer.wrap("Hello World!".getBytes(UTF_8)), 0)
+          .andThen(AsyncChannels.read(channel, buffer, 0))
+          .map(bytes -> new String(buffer.array(), 0, bytes, UTF_8));
+
+      assertEquals(Either.right("Hello World!"), program.provide(nothing()));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void socket() throws IOException {
+    try (var server = AsynchronousServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+         var client = AsynchronousSocketChannel.open()) {
+      var echo = AsyncChannels.<Nothing>accept(server).flatMap(socket -> {
+        var buffer = ByteBuffer.allocate(32);
+        return AsyncChannels.<Nothing>read(socket, buffer)
+            .flatMap(bytes -> AsyncChannels.write(socket, buffer.flip()));
+      });
+      var buffer = ByteBuffer.allocate(32);
+      var request = AsyncChannels.<Nothing>connect(client, server.getLocalAddress())
+          .andThen(AsyncChannels.write(client, ByteBuffer.wrap("ping".getBytes(UTF_8))))
+          .andThen(AsyncChannels.read(client, buffer))
+          .map(bytes -> new String(buffer.array(), 0, bytes, UTF_8));
+
+      var program = echo.fork().flatMap(fiber -> request.flatMap(response -> fiber.<Nothing>join().map(ignore -> response)));
+
+      assertEquals(Either.right("ping"), program.provide(nothing()));
+    }
+  }
+
+  @Test
+  public void fileNotReadable() throws IOException {
+    Path file = Files.createTempFile("zio", ".txt");
+    try (var channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE)) {
+      var program = AsyncChannels.<Nothing>read(channel, ByteBuffer.allocate(32), 0);
+
+      assertTrue(program.provide(nothing()).getLeft() instanceof NonReadableChannelException);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void socketNotConnected() throws IOException {
+    try (var client = AsynchronousSocketChannel.open()) {
+      var program = AsyncChannels.<Nothing>write(client, ByteBuffer.wrap("ping".getBytes(UTF_8)));
+
+      assertTrue(program.provide(nothing()).getLeft() instanceof NotYetConnectedException);
+    }
+  }
+}
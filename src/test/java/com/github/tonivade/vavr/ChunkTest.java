@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.Array;
+
+public class ChunkTest {
+
+  @Test
+  public void mapAndFilter() {
+    var chunk = Chunk.of("a", "bb", "ccc", "dddd");
+
+    assertEquals(Chunk.of(2, 4), chunk.map(String::length).filter(x -> x % 2 == 0));
+  }
+
+  @Test
+  public void primitives() {
+    var ints = Chunk.ofInts(1, 2, 3, 4, 5, 6);
+
+    assertEquals(Chunk.of(2, 4, 6), ints.filterInt(x -> x % 2 == 0));
+    assertEquals(Chunk.of(10, 20, 30, 40, 50, 60), ints.mapInt(x -> x * 10));
+    assertEquals(21, ints.foldInt(0, Integer::sum));
+    assertEquals(21L, ints.mapToLong(x -> x).foldLong(0, Long::sum));
+    assertEquals(10.5, ints.mapToDouble(x -> x / 2.0).foldDouble(0, Double::sum));
+    assertArrayEquals(new int[] { 3, 4 }, ints.slice(2, 4).toIntArray());
+    assertArrayEquals(new long[] { 1, 2 }, Chunk.ofLongs(1, 2).toLongArray());
+    assertArrayEquals(new double[] { 0.5 }, Chunk.ofDoubles(0.5).toDoubleArray());
+    assertArrayEquals(new byte[] { 1, 2 }, Chunk.ofBytes((byte) 1, (byte) 2).toByteArray());
+  }
+
+  @Test
+  public void bytesAsDoubles() {
+    var bytes = Chunk.ofBytes((byte) 1, (byte) 2, (byte) 3);
+
+    assertArrayEquals(new double[] { 1, 2, 3 }, bytes.toDoubleArray());
+    assertEquals(6.0, bytes.foldDouble(0, Double::sum));
+    assertEquals(Chunk.of(0.5, 1.0, 1.5), bytes.mapDouble(x -> x / 2));
+    assertArrayEquals(new double[] { 2, 3, 1 }, bytes.drop(1).concat(bytes.take(1)).toDoubleArray());
+  }
+
+  @Test
+  public void slice() {
+    var chunk = Chunk.ofInts(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+    assertEquals(Chunk.of(3, 4, 5), chunk.slice(3, 6));
+    assertEquals(Chunk.of(4), chunk.slice(3, 6).drop(1).take(1));
+    assertEquals(Chunk.empty(), chunk.slice(6, 3));
+    assertSame(chunk, chunk.slice(0, 100));
+  }
+
+  @Test
+  public void concat() {
+    var left = Chunk.ofInts(1, 2, 3);
+    var right = Chunk.ofInts(4, 5);
+
+    var concat = left.concat(right);
+
+    assertEquals(5, concat.size());
+    assertEquals(Chunk.of(1, 2, 3, 4, 5), concat);
+    assertEquals(Chunk.of(2, 3, 4), concat.slice(1, 4));
+    assertEquals(Chunk.of(4, 5), concat.drop(3));
+    assertEquals(15, concat.foldInt(0, Integer::sum));
+    assertArrayEquals(new int[] { 3, 4 }, concat.slice(2, 4).toIntArray());
+  }
+
+  @Test
+  public void concatMixed() {
+    var concat = Chunk.<Object>of("a").concat(Chunk.ofInts(1)).concat(Chunk.of("b"));
+
+    assertEquals(Chunk.of("a", 1, "b"), concat);
+    assertEquals(Array.of("a", 1, "b"), concat.toSeq());
+  }
+
+  @Test
+  public void concatMany() {
+    Chunk<Integer> chunk = Chunk.empty();
+    for (int i = 0; i < 10_000; i++) {
+      chunk = chunk.concat(Chunk.ofInts(i));
+    }
+
+    assertEquals(10_000, chunk.size());
+    assertEquals(9_999, chunk.getInt(9_999));
+    assertEquals(49_995_000, chunk.foldInt(0, Integer::sum));
+  }
+
+  @Test
+  public void outOfBounds() {
+    assertThrows(IndexOutOfBoundsException.class, () -> Chunk.ofInts(1, 2).slice(0, 1).getInt(1));
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class CounterRefTest {
+
+  @Test
+  public void incrementAndDecrement() {
+    var counter = CounterRef.of(10);
+
+    var result = counter.<Nothing, Nothing>increment().andThen(counter.increment())
+        .andThen(counter.decrement()).andThen(counter.add(5)).andThen(counter.get());
+
+    assertEquals(Either.right(16L), result.provide(nothing()));
+  }
+
+  @Test
+  public void getAndReset() {
+    var counter = CounterRef.of(10);
+
+    var result = counter.<Nothing, Nothing>getAndReset().flatMap(before -> counter.<Nothing, Nothing>get().map(after -> List.of(before, after)));
+
+    assertEquals(Either.right(List.of(10L, 0L)), result.provide(nothing()));
+  }
+
+  @Test
+  public void concurrentIncrements() {
+    var counter = CounterRef.of(0);
+
+    var program = ZIO.foreachParN(8, List.range(0, 10_000), i -> counter.<Nothing, Nothing>increment())
+        .andThen(counter.get());
+
+    assertEquals(Either.right(10_000L), program.provide(nothing()));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.Tuple;
+import io.vavr.collection.List;
+import io.vavr.collection.Seq;
+import io.vavr.control.Either;
+
+public class FiberRefTest {
+
+  @Test
+  public void initialValue() {
+    var ref = FiberRef.of("initial");
+
+    assertEquals(Either.right("initial"), ref.<Nothing, Nothing>get().provide(nothing()));
+  }
+
+  @Test
+  public void setAndGet() {
+    var ref = FiberRef.of(0);
+
+    var result = ref.<Nothing, Nothing>set(10)
+        .andThen(ref.updateAndGet(x -> x + 1))
+        .flatMap(x -> ref.<Nothing, Nothing>get().map(y -> Tuple.of(x, y)));
+
+    assertEquals(Either.right(Tuple.of(11, 11)), result.provide(nothing()));
+  }
+
+  @Test
+  public void locallyRestoresValue() {
+    var ref = FiberRef.of("none");
+
+    var result = ref.<Nothing, Nothing, String>locally("trace-1", ref.get())
+        .flatMap(inside -> ref.<Nothing, Nothing>get().map(outside -> Tuple.of(inside, outside)));
+
+    assertEquals(Either.right(Tuple.of("trace-1", "none")), result.provide(nothing()));
+  }
+
+  @Test
+  public void survivesAsyncBoundaries() {
+    var ref = FiberRef.of("none");
+
+    var result = ref.<Nothing, Nothing>set("trace-1")
+        .andThen(ZIO.<Nothing, Nothing>sleep(Duration.ofMillis(10)))
+        .andThen(ZIO.<Nothing, Nothing, String>blocking(ref.get()))
+        .flatMap(x -> ref.<Nothing, Nothing>get().map(y -> x + "," + y));
+
+    assertEquals(Either.right("trace-1,trace-1"), result.provide(nothing()));
+  }
+
+  @Test
+  public void forkInheritsAndJoinMerges() {
+    var ref = FiberRef.of(List.<String>empty(), x -> x.append("forked"), List::appendAll);
+
+    var result = ref.<Nothing, Nothing>set(List.of("parent"))
+        .andThen(ref.<Nothing, Nothing>updateAndGet(x -> x.append("child")).fork())
+        .flatMap(Fiber::join)
+        .flatMap(inChild -> ref.<Nothing, Nothing>get().map(inParent -> Tuple.of(inChild, inParent)));
+
+    assertEquals(Either.right(Tuple.of(List.of("parent", "forked", "child"), List.of("parent", "parent", "forked", "child"))),
+        result.provide(nothing()));
+  }
+
+  @Test
+  public void childChangesOnlyVisibleAfterJoin() {
+    var ref = FiberRef.of(0, x -> x, Integer::sum);
+
+    var result = ref.<Nothing, Nothing>set(1)
+        .andThen(ref.<Nothing, Nothing>set(5).delay(Duration.ofMillis(50)).fork())
+        .flatMap(fiber -> ref.<Nothing, Nothing>get()
+            .flatMap(before -> fiber.<Nothing>join().andThen(ref.get()).map(after -> Tuple.of(before, after))));
+
+    assertEquals(Either.right(Tuple.of(1, 6)), result.provide(nothing()));
+  }
+
+  @Test
+  public void crossesProvideLayer() {
+    var ref = FiberRef.of("none");
+    ZIO<String, Nothing, String> program = ref.<String, Nothing>get()
+        .flatMap(trace -> ref.<String, Nothing>set("changed").andThen(ZIO.access(env -> trace + "/" + env)));
+
+    var result = ref.<Nothing, Nothing>set("abc")
+        .andThen(program.provideLayer(ZLayer.succeed("env")))
+        .flatMap(inside -> ref.<Nothing, Nothing>get().map(after -> Tuple.of(inside, after)));
+
+    assertEquals(Either.right(Tuple.of("abc/env", "changed")), result.provide(nothing()));
+  }
+
+  @Test
+  public void unchangedRefsAreNotMerged() {
+    var ref = FiberRef.of(1, x -> x, Integer::sum);
+
+    var result = ref.<Nothing, Nothing>set(2)
+        .andThen(ZIO.<Nothing, Nothing, Integer>pure(0).fork())
+        .flatMap(Fiber::join)
+        .andThen(ref.get());
+
+    assertEquals(Either.right(2), result.provide(nothing()));
+  }
+
+  @Test
+  public void manyRefs() {
+    List<FiberRef<Integer>> refs = List.range(0, 20).map(i -> FiberRef.of(-1, x -> x, Integer::sum));
+    // the even refs set by the parent in reverse order, the odd ones by a child and merged on join
+    ZIO<Nothing, Nothing, Seq<Unit>> even =
+        ZIO.collectAll(List.range(0, 20).reverse().filter(i -> i % 2 == 0).map(i -> refs.get(i).set(i)));
+    ZIO<Nothing, Nothing, Seq<Unit>> odd =
+        ZIO.collectAll(List.range(0, 20).filter(i -> i % 2 == 1).map(i -> refs.get(i).set(i + 1)));
+
+    var result = even.andThen(odd.fork()).flatMap(Fiber::join)
+        .andThen(ZIO.collectAll(refs.map(FiberRef::<Nothing, Nothing>get)));
+
+    assertEquals(Either.right(List.range(0, 20)), result.provide(nothing()).map(List::ofAll));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+public class FiberTest {
+
+  @Test
+  public void forkJoin() {
+    var program = ZIO.<Nothing, String, Integer>task(() -> 10).fork().flatMap(Fiber::<Nothing>join);
+
+    assertEquals(Either.right(10), program.provide(nothing()));
+  }
+
+  @Test
+  public void forkJoinFailure() {
+    var program = ZIO.<Nothing, String, Integer>failure("error").fork().flatMap(Fiber::<Nothing>join);
+
+    assertEquals(Either.left("error"), program.provide(nothing()));
+  }
+
+  @Test
+  public void forkAwait() {
+    var program = ZIO.<Nothing, String, Integer>pure(10).fork().flatMap(Fiber::<Nothing, String>await);
+
+    assertEquals(Either.right(Either.right(10)), program.provide(nothing()).map(result -> result.get()));
+  }
+
+  @Test
+  public void forkRunsConcurrently() {
+    var latch = new CountDownLatch(1);
+    ZIO<Nothing, Throwable, Unit> waiting = ZIO.exec(latch::await);
+    ZIO<Nothing, Throwable, Unit> release = ZIO.exec(latch::countDown);
+
+    var program = waiting.fork().flatMap(fiber -> release.andThen(fiber.join()));
+
+    assertEquals(Either.right(Unit.unit()), program.provide(nothing()));
+  }
+
+  @Test
+  public void interrupt() {
+    var counter = new AtomicLong();
+
+    var program = loop(counter).fork()
+        .flatMap(fiber -> ZIO.<Nothing, Nothing, Long>task(counter::get)
+            .andThen(fiber.<Nothing, Nothing>interrupt()));
+
+    var result = program.provide(nothing()).get();
+
+    assertTrue(result.isFailure());
+    assertEquals(CancellationException.class, result.getCause().getClass());
+  }
+
+  @Test
+  public void joinInterruptedFiber() {
+    var counter = new AtomicLong();
+
+    var program = loop(counter).fork()
+        .flatMap(fiber -> fiber.<Nothing, Nothing>interrupt().andThen(fiber.<Nothing>join()));
+
+    var result = program.toFuture(nothing()).await();
+
+    assertEquals(CancellationException.class, result.getCause().get().getClass());
+  }
+
+  @Test
+  public void manyFibers() {
+    ZIO<Nothing, Nothing, List<Fiber<Nothing, Integer>>> forked = ZIO.pure(List.empty());
+    for (int i = 0; i < 10_000; i++) {
+      int value = i;
+      forked = forked.flatMap(list -> ZIO.<Nothing, Nothing, Integer>pure(value).fork().map(list::prepend));
+    }
+
+    var program = forked.flatMap(fibers -> fibers.foldLeft(ZIO.<Nothing, Nothing, Long>pure(0L),
+        (acc, fiber) -> acc.flatMap(sum -> fiber.<Nothing>join().map(x -> sum + x))));
+
+    assertEquals(Either.right(49_995_000L), program.toFuture(ForkJoinPool.commonPool(), nothing()).get());
+  }
+
+  @Test
+  public void stackSafetyAcrossYields() {
+    ZIO<Nothing, Nothing, Integer> program = ZIO.pure(0);
+    for (int i = 0; i < 100_000; i++) {
+      program = program.flatMap(x -> ZIO.pure(x + 1));
+    }
+
+    var result = program.fork().flatMap(Fiber::<Nothing>join);
+
+    assertEquals(Either.right(100_000), result.provide(nothing()));
+  }
+
+  @Test
+  public void yieldOnSingleThreadExecutor() {
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var counter = new AtomicLong();
+
+      var result = sleepAndInterrupt(counter).toFuture(executor, nothing()).await(5, TimeUnit.SECONDS);
+
+      assertEquals(Option.some(Either.right(true)), result.getValue().map(Try::get));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void yieldOnSingleWorkerForkJoinPool() {
+    var pool = new ForkJoinPool(1);
+    try {
+      var counter = new AtomicLong();
+
+      var result = sleepAndInterrupt(counter).toFuture(pool, nothing()).await(5, TimeUnit.SECONDS);
+
+      assertEquals(Option.some(Either.right(true)), result.getValue().map(Try::get));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void yieldRunsForkedFibers() {
+    var pool = new ForkJoinPool(1);
+    try {
+      var flag = new AtomicBoolean();
+      var program = ZIO.<Nothing, Nothing, Unit>task(() -> { flag.set(true); return Unit.unit(); }).fork().andThen(spin(flag));
+
+      var result = program.toFuture(pool, nothing()).await(5, TimeUnit.SECONDS);
+
+      assertEquals(Option.some(Either.right(true)), result.getValue().map(Try::get));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // the looping fiber has to yield for the sleeping one to resume in the same thread
+  private ZIO<Nothing, Nothing, Boolean> sleepAndInterrupt(AtomicLong counter) {
+    return loop(counter).fork()
+        .flatMap(fiber -> ZIO.<Nothing, Nothing>sleep(Duration.ofMillis(20))
+            .andThen(fiber.<Nothing, Nothing>interrupt()))
+        .map(result -> result.isFailure() && counter.get() > 0);
+  }
+
+  private ZIO<Nothing, Nothing, Boolean> spin(AtomicBoolean flag) {
+    return ZIO.<Nothing, Nothing, Boolean>task(flag::get).flatMap(done -> done ? ZIO.pure(true) : spin(flag));
+  }
+
+  private ZIO<Nothing, Nothing, Long> loop(AtomicLong counter) {
+    return ZIO.<Nothing, Nothing, Long>task(counter::incrementAndGet).flatMap(x -> loop(counter));
+  }
+}
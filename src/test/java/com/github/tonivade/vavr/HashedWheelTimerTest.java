@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class HashedWheelTimerTest {
+
+  private final HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(1).toNanos(), 8);
+
+  @Test
+  public void schedule() throws InterruptedException {
+    var latch = new CountDownLatch(1);
+    var start = System.nanoTime();
+
+    timer.schedule(Duration.ofMillis(30).toNanos(), latch::countDown);
+
+    assertTrue(latch.await(1, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(30).toNanos());
+  }
+
+  @Test
+  public void severalRounds() throws InterruptedException {
+    var latch = new CountDownLatch(3);
+
+    timer.schedule(Duration.ofMillis(5).toNanos(), latch::countDown);
+    timer.schedule(Duration.ofMillis(20).toNanos(), latch::countDown);
+    timer.schedule(Duration.ofMillis(50).toNanos(), latch::countDown);
+
+    assertTrue(latch.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancel() throws InterruptedException {
+    var counter = new AtomicInteger();
+    var latch = new CountDownLatch(1);
+
+    var timeout = timer.schedule(Duration.ofMillis(10).toNanos(), counter::incrementAndGet);
+    timer.schedule(Duration.ofMillis(30).toNanos(), latch::countDown);
+
+    assertTrue(timeout.cancel());
+    assertTrue(latch.await(1, TimeUnit.SECONDS));
+    assertFalse(timeout.cancel());
+    assertEquals(0, counter.get());
+  }
+
+  @Test
+  public void manyTimeouts() throws InterruptedException {
+    var latch = new CountDownLatch(100_000);
+
+    for (int i = 0; i < 100_000; i++) {
+      var timeout = timer.schedule(Duration.ofMillis(i % 100).toNanos(), latch::countDown);
+      if (i % 2 == 0) {
+        timeout.cancel();
+        latch.countDown();
+      }
+    }
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+  }
+}
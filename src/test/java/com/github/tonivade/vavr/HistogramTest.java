@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void buckets() {
+    int previous = -1;
+    for (long value : new long[] { 0, 1, 63, 64, 65, 127, 128, 1_000, 1_000_000, Long.MAX_VALUE }) {
+      var index = Histogram.index(value);
+      assertTrue(index >= previous);
+      assertTrue(Histogram.highestEquivalent(index) >= value);
+      assertTrue(Histogram.highestEquivalent(index) - value <= value / 32);
+      previous = index;
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    var histogram = new Histogram();
+    for (int i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1_000L);
+    }
+
+    assertEquals(10_000, histogram.count());
+    assertEquals(10_000_000, histogram.max());
+    assertEquals(5_000_500.0, histogram.mean());
+    assertWithin(5_000_000, histogram.percentile(50));
+    assertWithin(9_900_000, histogram.percentile(99));
+    assertEquals(10_000_000, histogram.percentile(100));
+  }
+
+  @Test
+  public void concurrentRecording() throws InterruptedException {
+    var histogram = new Histogram();
+    var threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+        }
+      });
+      threads[i].start();
+    }
+    for (var thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(40_000, histogram.count());
+  }
+
+  @Test
+  public void negativeValue() {
+    assertThrows(IllegalArgumentException.class, () -> new Histogram().record(-1));
+  }
+
+  private void assertWithin(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected / 32, "expected " + expected + " but was " + actual);
+  }
+}
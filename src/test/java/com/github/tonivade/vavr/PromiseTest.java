@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.Tuple;
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class PromiseTest {
+
+  @Test
+  public void awaitCompleted() {
+    var promise = Promise.<String, Integer>make();
+
+    var result = promise.<Nothing, String>succeed(1).flatMap(first -> promise.<Nothing>await().map(value -> Tuple.of(first, value)));
+
+    assertEquals(Either.right(Tuple.of(true, 1)), result.provide(nothing()));
+  }
+
+  @Test
+  public void awaitFromOtherFiber() {
+    var promise = Promise.<String, Integer>make();
+
+    var result = promise.<Nothing>await().fork()
+        .flatMap(fiber -> promise.<Nothing, String>succeed(10).delay(Duration.ofMillis(20)).andThen(fiber.join()));
+
+    assertEquals(Either.right(10), result.provide(nothing()));
+  }
+
+  @Test
+  public void onlyFirstCompletionWins() {
+    var promise = Promise.<String, Integer>make();
+
+    var result = promise.<Nothing, String>fail("error")
+        .flatMap(first -> promise.<Nothing, String>succeed(1).map(second -> Tuple.of(first, second)));
+
+    assertEquals(Either.right(Tuple.of(true, false)), result.provide(nothing()));
+    assertEquals(Either.left("error"), promise.await().provide(nothing()));
+  }
+
+  @Test
+  public void die() {
+    var promise = Promise.<String, Integer>make();
+
+    var result = promise.<Nothing, String>die(new UnsupportedOperationException()).andThen(promise.await());
+
+    assertThrows(UnsupportedOperationException.class, () -> result.provide(nothing()));
+  }
+
+  @Test
+  public void complete() {
+    var promise = Promise.<String, Integer>make();
+
+    var result = promise.<Nothing, Nothing>complete(ZIO.failure("error"));
+
+    assertEquals(Either.right(true), result.provide(nothing()));
+    assertEquals(Either.left("error"), promise.await().provide(nothing()));
+  }
+
+  @Test
+  public void waitersDoNotHoldThreads() {
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var promise = Promise.<Nothing, Integer>make();
+      var waiters = List.range(0, 1000).map(i -> promise.<Nothing>await().map(x -> x + i).forkOn(executor));
+
+      var result = ZIO.collectAll(waiters)
+          .flatMap(fibers -> promise.<Nothing, Nothing>succeed(1)
+              .andThen(ZIO.collectAll(fibers.map(Fiber::<Nothing>join))))
+          .map(values -> values.sum().intValue());
+
+      assertEquals(Either.right(1000 + 999 * 1000 / 2), result.provide(nothing()));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void interruptedWaitersAreRemoved() {
+    var promise = Promise.<Nothing, Integer>make();
+    var interrupted = List.range(0, 1000)
+        .map(i -> promise.<Nothing>await().fork().flatMap(fiber -> fiber.<Nothing, Nothing>interrupt()));
+
+    var result = promise.<Nothing>await().fork()
+        .flatMap(live -> ZIO.collectAll(interrupted)
+            .andThen(ZIO.<Nothing, Nothing, Integer>task(promise::waiters))
+            .flatMap(waiters -> promise.<Nothing, Nothing>succeed(1).andThen(live.join()).map(value -> Tuple.of(waiters, value))));
+
+    var outcome = result.provide(nothing()).get();
+    assertTrue(outcome._1 <= 2, "waiters: " + outcome._1);
+    assertEquals(1, outcome._2);
+  }
+}
@@ -7,8 +7,12 @@ package com.github.tonivade.vavr;
 import static com.github.tonivade.vavr.Nothing.nothing;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.jupiter.api.Test;
 
+import io.vavr.Tuple;
+import io.vavr.collection.List;
 import io.vavr.control.Either;
 
 public class RefTest {
@@ -70,4 +74,25 @@ public class RefTest {
 
     assertEquals(Either.right("HELLO WORLD!"), result.provide(nothing()));
   }
+
+  @Test
+  public void modify() {
+    var ref = Ref.of("Hello World!");
+
+    var result = ref.modify(value -> Tuple.of(value.length(), value.toUpperCase()));
+    var afterModify = result.andThen(ref.get());
+
+    assertEquals(Either.right(12), result.provide(nothing()));
+    assertEquals(Either.right("HELLO WORLD!"), afterModify.provide(nothing()));
+  }
+
+  @Test
+  public void withBackoff() {
+    var ref = Ref.withBackoff(0);
+    ZIO<Nothing, Nothing, Integer> increment = ref.updateAndGet(x -> x + 1);
+
+    var program = ZIO.foreachParN(8, List.range(0, 1000), i -> increment).andThen(ref.get());
+
+    assertEquals(Either.right(1000), program.toFuture(ForkJoinPool.commonPool(), nothing()).get());
+  }
 }
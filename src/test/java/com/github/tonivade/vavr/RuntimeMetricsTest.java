@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vavr.CheckedFunction0;
+import io.vavr.control.Either;
+
+public class RuntimeMetricsTest {
+
+  private final RuntimeMetrics metrics = new RuntimeMetrics();
+
+  @BeforeEach
+  public void setUp() {
+    Supervisor.install(metrics);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Supervisor.uninstall();
+  }
+
+  @Test
+  public void fibers() {
+    var program = ZIO.<Nothing, String, Integer>pure(1).fork().flatMap(Fiber::<Nothing>join);
+
+    assertEquals(Either.right(1), program.provide(nothing()));
+    assertEquals(2, metrics.fibersStarted());
+    assertEquals(2, metrics.fibersSucceeded());
+    assertTrue(metrics.steps() > 0);
+    assertTrue(metrics.yields() >= 2);
+  }
+
+  @Test
+  public void failures() {
+    ZIO.<Nothing, String, Integer>failure("error").provide(nothing());
+    ZIO.<Nothing, String, Integer>task(() -> { throw new UnsupportedOperationException(); }).toFuture(nothing()).await();
+    ZIO.<Nothing, String>sleep(Duration.ofSeconds(1)).timeout(Duration.ofMillis(10)).provide(nothing());
+
+    assertEquals(1, metrics.fibersFailed());
+    assertEquals(1, metrics.fibersDied());
+    assertEquals(1, metrics.fibersInterrupted());
+  }
+
+  @Test
+  public void suspensions() {
+    ZIO.<Nothing, String>sleep(Duration.ofMillis(10)).provide(nothing());
+
+    assertEquals(1, metrics.suspensions());
+    assertEquals(1, metrics.resumes());
+  }
+
+  @Test
+  public void tasks() {
+    CheckedFunction0<Integer> failing = () -> { throw new UnsupportedOperationException(); };
+
+    ZIO.<Nothing, Integer>from(() -> 1).andThen(ZIO.from(failing)).provide(nothing());
+
+    assertEquals(2, metrics.tasks());
+    assertEquals(1, metrics.taskFailures());
+  }
+
+  @Test
+  public void namedEffects() {
+    var load = ZIO.<Nothing, String, Integer>task(() -> 1).named("db.load");
+    var failing = ZIO.<Nothing, String, Integer>failure("error").named("db.load");
+
+    for (int i = 0; i < 10; i++) {
+      load.provide(nothing());
+    }
+    failing.provide(nothing());
+
+    var effect = metrics.effect("db.load").get();
+    assertEquals(11, effect.calls());
+    assertEquals(1, effect.failures());
+    assertEquals(11, effect.latency().count());
+    assertTrue(metrics.effect("other").isEmpty());
+  }
+
+  @Test
+  public void namedEffectsWithDefects() throws InterruptedException {
+    var started = new CountDownLatch(1);
+    var throwing = ZIO.<Nothing, String, Integer>task(() -> { throw new IllegalStateException(); }).named("db.load");
+    var sleeping = ZIO.<Nothing, String, Unit>task(() -> { started.countDown(); return Unit.unit(); })
+        .andThen(ZIO.sleep(Duration.ofSeconds(1))).named("db.load");
+
+    throwing.toFuture(nothing()).await();
+    var fiber = sleeping.fork().provide(nothing()).get();
+    started.await();
+    fiber.<Nothing, String>interrupt().provide(nothing());
+
+    var effect = metrics.effect("db.load").get();
+    assertEquals(2, effect.calls());
+    assertEquals(2, effect.failures());
+    assertEquals(2, effect.latency().count());
+  }
+
+  @Test
+  public void withoutSupervisor() {
+    Supervisor.uninstall();
+
+    var result = ZIO.<Nothing, String, Integer>task(() -> 1).named("db.load").fork()
+        .flatMap(Fiber::<Nothing>join).provide(nothing());
+
+    assertEquals(Either.right(1), result);
+    assertEquals(0, metrics.fibersStarted());
+    assertTrue(metrics.effect("db.load").isEmpty());
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.Tuple;
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class STMTest {
+
+  @Test
+  public void getAndSet() {
+    var ref = TRef.of(10);
+
+    var program = ref.<Nothing>get().flatMap(x -> ref.set(x + 1)).andThen(ref.get()).<Nothing>commit();
+
+    assertEquals(Either.right(11), program.provide(nothing()));
+  }
+
+  @Test
+  public void modify() {
+    var ref = TRef.of("hello");
+
+    var program = ref.<Nothing, Integer>modify(value -> Tuple.of(value.length(), value.toUpperCase()))
+        .flatMap(length -> ref.<Nothing>get().map(value -> value + length)).<Nothing>commit();
+
+    assertEquals(Either.right("HELLO5"), program.provide(nothing()));
+  }
+
+  @Test
+  public void failureDoesNotCommit() {
+    var ref = TRef.of(10);
+
+    var program = ref.<String>set(20).andThen(STM.<String, Unit>fail("error")).<Nothing>commit();
+
+    assertEquals(Either.left("error"), program.provide(nothing()));
+    assertEquals(Either.right(10), ref.<Nothing>get().<Nothing>commit().provide(nothing()));
+  }
+
+  @Test
+  public void transfers() {
+    var from = TRef.of(10_000);
+    var to = TRef.of(0);
+
+    var transfer = from.<Nothing>updateAndGet(x -> x - 1).andThen(to.updateAndGet(x -> x + 1)).<Nothing>commit();
+    var total = from.<Nothing>get().flatMap(x -> to.<Nothing>get().map(y -> List.of(x, y))).<Nothing>commit();
+
+    var program = ZIO.foreachParN(8, List.range(0, 10_000), i -> transfer).andThen(total);
+
+    assertEquals(Either.right(List.of(0, 10_000)), program.toFuture(ForkJoinPool.commonPool(), nothing()).get());
+  }
+
+  @Test
+  public void retryWaitsForChange() {
+    var balance = TRef.of(0);
+
+    var withdraw = balance.<Nothing>get()
+        .flatMap(value -> STM.<Nothing>check(value >= 100).andThen(balance.set(value - 100)))
+        .andThen(balance.get()).<Nothing>commit();
+    var deposit = balance.<Nothing>updateAndGet(x -> x + 60).<Nothing>commit();
+
+    var program = withdraw.fork()
+        .flatMap(fiber -> deposit.andThen(deposit).andThen(fiber.join()));
+
+    assertEquals(Either.right(20), program.provide(nothing()));
+  }
+
+  @Test
+  public void stackSafety() {
+    var ref = TRef.of(0);
+    STM<Nothing, Integer> program = ref.get();
+    for (int i = 0; i < 100_000; i++) {
+      program = program.flatMap(x -> ref.<Nothing>set(x + 1).andThen(ref.get())).map(x -> x).mapError(x -> x);
+    }
+
+    assertEquals(Either.right(100_000), program.<Nothing>commit().provide(nothing()));
+  }
+
+  @Test
+  public void stackSafetyRecursive() {
+    var ref = TRef.of(0);
+
+    assertEquals(Either.right(100_000), increment(ref, 100_000).<Nothing>commit().provide(nothing()));
+  }
+
+  private static STM<Nothing, Integer> increment(TRef<Integer> ref, int times) {
+    if (times == 0) {
+      return ref.get();
+    }
+    return ref.<Nothing>updateAndGet(x -> x + 1).flatMap(x -> increment(ref, times - 1));
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.control.Either;
+
+public class ScheduleTest {
+
+  @Test
+  public void retryUntilSuccess() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>recurs(5);
+
+    var result = failUntil(counter, 3).retry(schedule).provide(nothing());
+
+    assertEquals(Either.right(3), result);
+    assertEquals(Either.right(2L), schedule.stats().map(Schedule.Stats::retries).provide(nothing()));
+  }
+
+  @Test
+  public void retryExhausted() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>recurs(2);
+
+    var result = failUntil(counter, 10).retry(schedule).provide(nothing());
+
+    assertEquals(Either.left("error 3"), result);
+    assertEquals(Either.right(1L), schedule.stats().map(Schedule.Stats::exhausted).provide(nothing()));
+  }
+
+  @Test
+  public void retryWhileInput() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>forever().whileInput(error -> !error.equals("error 2"));
+
+    var result = failUntil(counter, 10).retry(schedule).provide(nothing());
+
+    assertEquals(Either.left("error 2"), result);
+  }
+
+  @Test
+  public void exponentialBackoff() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>exponential(Duration.ofMillis(10)).and(Schedule.recurs(3));
+    var start = System.nanoTime();
+
+    var result = failUntil(counter, 4).retry(schedule).provide(nothing());
+
+    assertEquals(Either.right(4), result);
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(70).toNanos());
+    assertEquals(Either.right(Duration.ofMillis(70)),
+        schedule.stats().map(Schedule.Stats::totalDelay).provide(nothing()));
+  }
+
+  @Test
+  public void fibonacciAndMaxDelay() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>fibonacci(Duration.ofMillis(10))
+        .maxDelay(Duration.ofMillis(20)).and(Schedule.recurs(4));
+
+    var result = failUntil(counter, 5).retry(schedule).provide(nothing());
+
+    assertEquals(Either.right(5), result);
+    assertEquals(Either.right(Duration.ofMillis(10 + 10 + 20 + 20)),
+        schedule.stats().map(Schedule.Stats::totalDelay).provide(nothing()));
+  }
+
+  @Test
+  public void jitteredStaysInRange() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>spaced(Duration.ofMillis(10)).jittered(0.5, 1.0).and(Schedule.recurs(10));
+
+    failUntil(counter, 100).retry(schedule).provide(nothing());
+
+    var total = schedule.stats().map(Schedule.Stats::totalDelay).provide(nothing()).get();
+    assertTrue(total.compareTo(Duration.ofMillis(50)) >= 0);
+    assertTrue(total.compareTo(Duration.ofMillis(100)) <= 0);
+  }
+
+  @Test
+  public void upTo() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<String>spaced(Duration.ofMillis(20)).upTo(Duration.ofMillis(100));
+
+    var result = failUntil(counter, 1000).retry(schedule).provide(nothing());
+
+    assertTrue(result.isLeft());
+    assertTrue(counter.get() <= 6);
+  }
+
+  @Test
+  public void repeat() {
+    var counter = new AtomicInteger();
+    var schedule = Schedule.<Integer>fixed(Duration.ofMillis(10)).and(Schedule.recurs(3));
+
+    var result = ZIO.<Nothing, String, Integer>task(counter::incrementAndGet).repeat(schedule).provide(nothing());
+
+    assertEquals(Either.right(4), result);
+    assertEquals(Either.right(3L), schedule.stats().map(Schedule.Stats::repeats).provide(nothing()));
+  }
+
+  @Test
+  public void repeatStopsOnFailure() {
+    var counter = new AtomicInteger();
+    ZIO<Nothing, String, Integer> effect = ZIO.from(() -> {
+      var value = counter.incrementAndGet();
+      return value < 3 ? Either.right(value) : Either.left("error");
+    });
+
+    var result = effect.repeat(Schedule.forever()).provide(nothing());
+
+    assertEquals(Either.left("error"), result);
+  }
+
+  @Test
+  public void stackSafety() {
+    var counter = new AtomicInteger();
+
+    var result = failUntil(counter, 100_000).retry(Schedule.forever()).provide(nothing());
+
+    assertEquals(Either.right(100_000), result);
+  }
+
+  private ZIO<Nothing, String, Integer> failUntil(AtomicInteger counter, int success) {
+    return ZIO.from(() -> {
+      var value = counter.incrementAndGet();
+      return value < success ? Either.left("error " + value) : Either.right(value);
+    });
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class ZBarrierTest {
+
+  @Test
+  public void tripWhenAllArrive() {
+    var barrier = ZBarrier.of(3);
+
+    var result = ZIO.collectAllPar(List.range(0, 3).map(i -> barrier.<Nothing, Nothing>await()));
+
+    assertEquals(Either.right(List.of(0, 1, 2)), result.map(List::ofAll).map(List::sorted).provide(nothing()));
+  }
+
+  @Test
+  public void reusedAfterTrip() {
+    var barrier = ZBarrier.of(2);
+    var round = ZIO.collectAllPar(List.range(0, 2).map(i -> barrier.<Nothing, Nothing>await()));
+
+    var result = round.andThen(round).andThen(round).andThen(barrier.waiting());
+
+    assertEquals(Either.right(0), result.provide(nothing()));
+  }
+
+  @Test
+  public void interruptedPartyLeaves() {
+    var barrier = ZBarrier.of(2);
+
+    var result = barrier.<Nothing, Nothing>await().timeout(Duration.ofMillis(20))
+        .andThen(barrier.waiting());
+
+    assertEquals(Either.right(0), result.provide(nothing()));
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+public class ZCacheTest {
+
+  @Test
+  public void get() {
+    var counter = new AtomicInteger();
+    ZCache<Nothing, String, Nothing, Integer> cache =
+        ZCache.make(10, key -> ZIO.task(() -> counter.incrementAndGet() + key.length()));
+
+    var program = cache.get("a").flatMap(x -> cache.get("a").map(y -> x + y));
+
+    assertEquals(Either.right(4), program.provide(nothing()));
+    assertEquals(1, counter.get());
+    assertStats(cache, 1, 1, 1, 0);
+  }
+
+  @Test
+  public void singleFlight() {
+    var counter = new AtomicInteger();
+    var latch = new CountDownLatch(1);
+    ZCache<Nothing, String, Throwable, Integer> cache = ZCache.make(10, key -> ZIO.effectBlocking(() -> {
+      latch.await();
+      return counter.incrementAndGet();
+    }));
+
+    ZIO<Nothing, Throwable, List<Integer>> all =
+        ZIO.collectAllPar(List.fill(16, cache.get("a"))).map(seq -> seq.toList());
+    var program = all.fork().flatMap(fiber -> ZIO.<Nothing>exec(latch::countDown).andThen(fiber.join()));
+
+    assertEquals(Either.right(List.fill(16, 1)), program.provide(nothing()));
+    assertEquals(1, counter.get());
+    assertStats(cache, 15, 1, 1, 0);
+  }
+
+  @Test
+  public void failure() {
+    ZCache<Nothing, String, String, Integer> cache = ZCache.make(10, key -> ZIO.failure("error " + key));
+
+    assertEquals(Either.left("error a"), cache.get("a").provide(nothing()));
+    assertEquals(Either.left("error a"), cache.get("a").provide(nothing()));
+    assertStats(cache, 1, 1, 1, 1);
+  }
+
+  @Test
+  public void defectIsNotCached() {
+    var counter = new AtomicInteger();
+    ZCache<Nothing, String, Nothing, Integer> cache = ZCache.make(10, key -> ZIO.task(() -> {
+      if (counter.incrementAndGet() == 1) {
+        throw new IllegalStateException();
+      }
+      return counter.get();
+    }));
+
+    assertEquals(IllegalStateException.class, cache.get("a").toFuture(nothing()).await().getCause().get().getClass());
+    assertEquals(Either.right(2), cache.get("a").provide(nothing()));
+  }
+
+  @Test
+  public void interruptedLoader() {
+    var pool = Executors.newCachedThreadPool();
+    try {
+      var counter = new AtomicInteger();
+      var forking = new CountDownLatch(1);
+      var gate = new CountDownLatch(1);
+      ZCache<Nothing, String, Throwable, Integer> cache = ZCache.make(10, key -> ZIO.task(counter::incrementAndGet));
+      // holds the first caller in the fork of the load until the interruption is sent
+      var executor = ZIOTest.gated(pool, 2, forking, gate);
+
+      var first = cache.get("a").forkOn(executor).flatMap(fiber -> ZIO.<Nothing>exec(forking::await)
+          .andThen(ZIO.<Nothing>exec(gate::countDown).delay(Duration.ofMillis(50)).fork())
+          .andThen(fiber.<Nothing, Throwable>interrupt()));
+
+      assertTrue(first.provide(nothing()).get().isFailure());
+      var second = cache.get("a").toFuture(nothing()).await(5, TimeUnit.SECONDS);
+      assertEquals(Option.some(Try.success(Either.right(1))), second.getValue());
+      assertEquals(1, counter.get());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    ZCache<Nothing, Integer, Nothing, Integer> cache = ZCache.make(2, key -> ZIO.pure(key * 10));
+
+    var program = cache.get(1).andThen(cache.get(2)).andThen(cache.get(1))
+        .andThen(cache.get(3)).andThen(cache.get(1)).andThen(cache.size());
+
+    assertEquals(Either.right(2), program.provide(nothing()));
+    assertStats(cache, 2, 3, 3, 0);
+    assertEquals(1L, cache.<Nothing, Nothing>stats().provide(nothing()).get().evictions());
+  }
+
+  @Test
+  public void loadingIsNotEvicted() throws InterruptedException {
+    var started = new CountDownLatch(2);
+    var latch = new CountDownLatch(1);
+    var loads = new ConcurrentLinkedQueue<Integer>();
+    ZCache<Nothing, Integer, Throwable, Integer> cache = ZCache.make(1, key -> ZIO.effectBlocking(() -> {
+      loads.add(key);
+      started.countDown();
+      latch.await();
+      return key * 10;
+    }));
+
+    var first = cache.get(1).fork().provide(nothing()).get();
+    var second = cache.get(2).fork().provide(nothing()).get();
+    started.await();
+    var again = cache.get(1).fork().provide(nothing()).get();
+    latch.countDown();
+
+    assertEquals(Either.right(10), again.<Nothing>join().provide(nothing()));
+    assertEquals(Either.right(10), first.<Nothing>join().provide(nothing()));
+    assertEquals(Either.right(20), second.<Nothing>join().provide(nothing()));
+    assertEquals(List.of(1, 2), List.ofAll(loads).sorted());
+  }
+
+  @Test
+  public void timeToLive() throws InterruptedException {
+    var counter = new AtomicInteger();
+    ZCache<Nothing, String, Nothing, Integer> cache =
+        ZCache.make(10, Duration.ofMillis(50), key -> ZIO.task(counter::incrementAndGet));
+
+    assertEquals(Either.right(1), cache.get("a").provide(nothing()));
+    assertEquals(Either.right(1), cache.get("a").provide(nothing()));
+    Thread.sleep(100);
+    assertEquals(Either.right(2), cache.get("a").provide(nothing()));
+  }
+
+  @Test
+  public void refreshAhead() throws InterruptedException {
+    var counter = new AtomicInteger();
+    ZCache<Nothing, String, Nothing, Integer> cache = ZCache.make(10,
+        result -> Duration.ofMinutes(1), Duration.ofMillis(50), key -> ZIO.task(counter::incrementAndGet));
+
+    assertEquals(Either.right(1), cache.get("a").provide(nothing()));
+    Thread.sleep(100);
+    assertEquals(Either.right(1), cache.get("a").provide(nothing()));
+    var refreshed = cache.get("a").provide(nothing());
+    for (int i = 0; i < 100 && refreshed.get() < 2; i++) {
+      Thread.sleep(10);
+      refreshed = cache.get("a").provide(nothing());
+    }
+    assertEquals(Either.right(2), refreshed);
+    assertEquals(2, counter.get());
+  }
+
+  @Test
+  public void refreshDuringRefreshAhead() throws InterruptedException {
+    var counter = new AtomicInteger();
+    var started = new CountDownLatch(1);
+    var latch = new CountDownLatch(1);
+    ZCache<Nothing, String, Throwable, Integer> cache = ZCache.make(10,
+        result -> Duration.ofMinutes(1), Duration.ZERO, key -> ZIO.effectBlocking(() -> {
+          var count = counter.incrementAndGet();
+          if (count > 1) {
+            started.countDown();
+            latch.await();
+          }
+          return count;
+        }));
+    var pool = Executors.newSingleThreadScheduledExecutor();
+    try {
+      assertEquals(Either.right(1), cache.get("a").provide(nothing()));
+      assertEquals(Either.right(1), cache.get("a").provide(nothing()));
+      started.await();
+      pool.schedule(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+      assertEquals(Either.right(Unit.unit()), cache.refresh("a").provide(nothing()));
+      assertEquals(2, counter.get());
+      assertEquals(Either.right(2), cache.get("a").provide(nothing()));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedRefreshKeepsValue() throws InterruptedException {
+    var counter = new AtomicInteger();
+    ZCache<Nothing, String, String, String> cache = ZCache.make(10,
+        result -> Duration.ofHours(1), Duration.ofMillis(50),
+        key -> counter.incrementAndGet() == 1 ? ZIO.pure("good") : ZIO.failure("backend down"));
+
+    assertEquals(Either.right("good"), cache.get("a").provide(nothing()));
+    Thread.sleep(100);
+    assertEquals(Either.right("good"), cache.get("a").provide(nothing()));
+    for (int i = 0; i < 100 && cache.<Nothing, Nothing>stats().provide(nothing()).get().loads() < 2; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(Either.right("good"), cache.get("a").provide(nothing()));
+    assertEquals(Either.left("backend down"), cache.refresh("a").provide(nothing()));
+    assertEquals(Either.right("good"), cache.get("a").provide(nothing()));
+  }
+
+  @Test
+  public void refreshAndInvalidate() {
+    var counter = new AtomicInteger();
+    ZCache<Nothing, String, Nothing, Integer> cache = ZCache.make(10, key -> ZIO.task(counter::incrementAndGet));
+
+    var program = cache.get("a")
+        .andThen(cache.refresh("a")).andThen(cache.get("a"))
+        .flatMap(x -> cache.<Nothing, Nothing>invalidate("a").andThen(cache.get("a")).map(y -> List.of(x, y)));
+
+    assertEquals(Either.right(List.of(2, 3)), program.provide(nothing()));
+  }
+
+  private void assertStats(ZCache<Nothing, ?, ?, ?> cache, long hits, long misses, long loads, long failures) {
+    var stats = cache.<Nothing, Nothing>stats().provide(nothing()).get();
+
+    assertEquals(hits, stats.hits());
+    assertEquals(misses, stats.misses());
+    assertEquals(loads, stats.loads());
+    assertEquals(failures, stats.loadFailures());
+  }
+}
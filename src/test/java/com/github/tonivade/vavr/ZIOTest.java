@@ -8,12 +8,22 @@ import static com.github.tonivade.vavr.Nothing.nothing;
 import static io.vavr.Function1.identity;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import io.vavr.Tuple;
 import io.vavr.collection.List;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
+import io.vavr.control.Try;
 
 import io.reactivex.schedulers.Schedulers;
 
@@ -40,6 +50,44 @@ public class ZIOTest {
     assertEquals(Either.left("For input string: \"lskjdf\""), result);
   }
 
+  @Test
+  public void mapFusion() {
+    var task = parseInt("1");
+
+    var result = task.map(x -> x + 1).map(x -> x * 2).map(String::valueOf);
+
+    assertTrue(result instanceof ZIO.Map);
+    assertSame(task, ((ZIO.Map<?, ?, ?, ?>) result).current);
+    assertEquals(Either.right("4"), result.provide(nothing()));
+  }
+
+  @Test
+  public void mapErrorFusion() {
+    var task = parseInt("asdf");
+
+    var result = task.mapError(Throwable::getMessage).mapError(String::length);
+
+    assertTrue(result instanceof ZIO.MapError);
+    assertSame(task, ((ZIO.MapError<?, ?, ?, ?>) result).current);
+    assertEquals(Either.left(24), result.provide(nothing()));
+  }
+
+  @Test
+  public void mapPure() {
+    var result = ZIO.<Nothing, Nothing, Integer>pure(1).map(x -> x + 1);
+
+    assertTrue(result instanceof ZIO.Pure);
+    assertEquals(Either.right(2), result.provide(nothing()));
+  }
+
+  @Test
+  public void mapErrorFailure() {
+    var result = ZIO.<Nothing, String, Integer>failure("error").map(x -> x + 1).mapError(String::length);
+
+    assertTrue(result instanceof ZIO.Failure);
+    assertEquals(Either.left(5), result.provide(nothing()));
+  }
+
   @Test
   public void flatMapRight() {
     var result = parseInt("1").flatMap(x -> ZIO.pure(x + 1)).provide(nothing());
@@ -124,6 +172,132 @@ public class ZIOTest {
     assertEquals(Either.left("For input string: \"jksdf\""), result.provide(nothing()));
   }
 
+  @Test
+  public void zipParRight() {
+    var result = ZIO.zipPar(parseInt("1"), parseInt("2"), (a, b) -> a + b);
+
+    assertEquals(Either.right(3), result.provide(nothing()));
+  }
+
+  @Test
+  public void zipParLeft() {
+    var result = ZIO.zipPar(parseInt("1"), parseInt("jksdf"), (a, b) -> a + b).mapError(Throwable::getMessage);
+
+    assertEquals(Either.left("For input string: \"jksdf\""), result.provide(nothing()));
+  }
+
+  @Test
+  public void collectAll() {
+    var result = ZIO.collectAll(List.of(parseInt("1"), parseInt("2"), parseInt("3")));
+
+    assertEquals(Either.right(List.of(1, 2, 3)), result.provide(nothing()).map(List::ofAll));
+  }
+
+  @Test
+  public void collectAllPar() {
+    var result = ZIO.collectAllPar(List.of(parseInt("1"), parseInt("2"), parseInt("3")));
+
+    assertEquals(Either.right(List.of(1, 2, 3)), result.provide(nothing()).map(List::ofAll));
+  }
+
+  @Test
+  public void collectAllParLeft() {
+    var result = ZIO.collectAllPar(List.of(parseInt("1"), parseInt("sdf"), parseInt("3")));
+
+    assertEquals(NumberFormatException.class, result.provide(nothing()).getLeft().getClass());
+  }
+
+  @Test
+  public void foreachParN() {
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+
+    var result = ZIO.foreachParN(4, List.range(0, 100), i -> ZIO.<Nothing, Integer>from(() -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      Thread.sleep(1);
+      running.decrementAndGet();
+      return i * 2;
+    }));
+
+    assertEquals(Either.right(List.range(0, 100).map(i -> i * 2)), result.provide(nothing()).map(List::ofAll));
+    assertTrue(maxRunning.get() <= 4);
+  }
+
+  @Test
+  public void foreachParNInterruptsSiblings() {
+    var counter = new AtomicInteger();
+
+    var result = ZIO.foreachParN(2, List.of(true, false), fail -> fail
+        ? ZIO.<Nothing, String, Integer>failure("error")
+        : forever(counter));
+
+    assertEquals(Either.left("error"), result.provide(nothing()));
+    var stopped = counter.get();
+    assertEquals(Either.right(stopped), ZIO.<Nothing, Nothing>sleep(Duration.ofMillis(50))
+        .andThen(ZIO.task(counter::get)).provide(nothing()));
+  }
+
+  @Test
+  public void foreachParNInterruptedWhileForking() {
+    var pool = Executors.newCachedThreadPool();
+    try {
+      var counter = new AtomicInteger();
+      var forking = new CountDownLatch(1);
+      var gate = new CountDownLatch(1);
+      // holds the parent in the fork of its first worker until the interruption is sent
+      var executor = gated(pool, 2, forking, gate);
+
+      var result = ZIO.foreachParN(4, List.range(0, 4), i -> forever(counter)).forkOn(executor)
+          .flatMap(fiber -> ZIO.<Nothing>exec(forking::await).mapError(Throwable::getMessage)
+              .andThen(ZIO.<Nothing>exec(gate::countDown).mapError(Throwable::getMessage).delay(Duration.ofMillis(50)).fork())
+              .andThen(fiber.<Nothing, String>interrupt()));
+
+      assertTrue(result.provide(nothing()).get().isFailure());
+      var stopped = counter.get();
+      assertEquals(Either.right(stopped), ZIO.<Nothing, Nothing>sleep(Duration.ofMillis(50))
+          .andThen(ZIO.task(counter::get)).provide(nothing()));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void stackSafetyFlatMap() {
+    ZIO<Nothing, Nothing, Integer> program = ZIO.pure(0);
+    for (int i = 0; i < 1_000_000; i++) {
+      program = program.flatMap(x -> ZIO.pure(x + 1));
+    }
+
+    assertEquals(Either.right(1_000_000), program.provide(nothing()));
+  }
+
+  @Test
+  public void stackSafetyMap() {
+    ZIO<Nothing, Nothing, Integer> program = ZIO.task(() -> 0);
+    for (int i = 0; i < 1_000_000; i++) {
+      program = program.map(x -> x + 1);
+    }
+
+    assertEquals(Either.right(1_000_000), program.provide(nothing()));
+  }
+
+  @Test
+  public void stackSafetyRecursion() {
+    var result = sum(1_000_000, 0).provide(nothing());
+
+    assertEquals(Either.right(500_000_500_000L), result);
+  }
+
+  @Test
+  public void stackSafetyFoldM() {
+    ZIO<Nothing, Integer, Integer> program = ZIO.failure(0);
+    for (int i = 0; i < 1_000_000; i++) {
+      program = program.swap().map(x -> x + 1).swap().foldM(x -> ZIO.failure(x), ZIO::pure);
+    }
+
+    assertEquals(Either.left(1_000_000), program.provide(nothing()));
+  }
+
   @Test
   public void safeRunAsyncFuture() {
     var ref = Ref.of(List.<String>empty());
@@ -141,6 +315,130 @@ public class ZIOTest {
     assertEquals(Either.right(5), result.map(List::size));
   }
 
+  @Test
+  public void safeRunAsyncFutureSingleSubmission() {
+    var submissions = new AtomicInteger();
+    Executor executor = task -> { submissions.incrementAndGet(); ForkJoinPool.commonPool().execute(task); };
+
+    var program = parseInt("1").flatMap(x -> parseInt("2").map(y -> x + y)).foldM(e -> ZIO.pure(0), ZIO::pure);
+
+    var result = program.toFuture(executor, nothing()).get();
+
+    assertEquals(Either.right(3), result);
+    assertEquals(1, submissions.get());
+  }
+
+  @Test
+  public void effectBlocking() {
+    var executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "cpu"));
+    ZIO<Nothing, Throwable, String> currentThread = ZIO.from(() -> Thread.currentThread().getName());
+
+    var program = ZIO.map2(
+        ZIO.effectBlocking(() -> Thread.currentThread().getName()), currentThread, Tuple::of);
+
+    var result = program.toFuture(executor, nothing()).get().get();
+    executor.shutdown();
+
+    assertNotEquals("cpu", result._1());
+    assertEquals("cpu", result._2());
+  }
+
+  @Test
+  public void memoizeSingleFlight() {
+    var counter = new AtomicInteger();
+    var latch = new CountDownLatch(1);
+    var memoized = ZIO.<Nothing, Integer>effectBlocking(() -> {
+      latch.await();
+      return counter.incrementAndGet();
+    }).memoize();
+
+    ZIO<Nothing, Throwable, List<Integer>> all = ZIO.collectAllPar(List.fill(16, memoized))
+        .flatMap(seq -> memoized.map(x -> seq.toList().append(x)));
+    var program = all.fork().flatMap(fiber -> ZIO.<Nothing>exec(latch::countDown).andThen(fiber.join()));
+
+    assertEquals(Either.right(List.fill(17, 1)), program.provide(nothing()));
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void memoizeFailure() {
+    var counter = new AtomicInteger();
+    var memoized = ZIO.<Nothing, String, Integer>task(counter::incrementAndGet)
+        .flatMap(x -> ZIO.<Nothing, String, Integer>failure("error")).memoize();
+
+    assertEquals(Either.left("error"), memoized.provide(nothing()));
+    assertEquals(Either.left("error"), memoized.provide(nothing()));
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void memoizeInterruptedLoader() {
+    var pool = Executors.newCachedThreadPool();
+    try {
+      var counter = new AtomicInteger();
+      var forking = new CountDownLatch(1);
+      var gate = new CountDownLatch(1);
+      var memoized = ZIO.<Nothing, Throwable, Integer>task(counter::incrementAndGet).memoize();
+      // holds the first caller in the fork of the loader until the interruption is sent
+      var executor = gated(pool, 2, forking, gate);
+
+      var first = memoized.forkOn(executor).flatMap(fiber -> ZIO.<Nothing>exec(forking::await)
+          .andThen(ZIO.<Nothing>exec(gate::countDown).delay(Duration.ofMillis(50)).fork())
+          .andThen(fiber.<Nothing, Throwable>interrupt()));
+
+      assertTrue(first.provide(nothing()).get().isFailure());
+      var second = memoized.toFuture(nothing()).await(5, TimeUnit.SECONDS);
+      assertEquals(Option.some(Try.success(Either.right(1))), second.getValue());
+      assertEquals(1, counter.get());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void cachedExpires() throws InterruptedException {
+    var counter = new AtomicInteger();
+    var cached = ZIO.<Nothing, Nothing, Integer>task(counter::incrementAndGet).cached(Duration.ofMillis(50));
+
+    assertEquals(Either.right(1), cached.provide(nothing()));
+    assertEquals(Either.right(1), cached.provide(nothing()));
+    Thread.sleep(100);
+    assertEquals(Either.right(2), cached.provide(nothing()));
+    assertEquals(Either.right(2), cached.provide(nothing()));
+  }
+
+  @Test
+  public void asyncRight() {
+    ZIO<Nothing, String, Integer> program = ZIO.async(
+        callback -> ForkJoinPool.commonPool().execute(() -> callback.accept(Try.success(Either.right(10)))));
+
+    assertEquals(Either.right(11), program.map(x -> x + 1).provide(nothing()));
+  }
+
+  @Test
+  public void asyncLeft() {
+    ZIO<Nothing, String, Integer> program = ZIO.async(callback -> callback.accept(Try.success(Either.left("error"))));
+
+    assertEquals(Either.left("error"), program.map(x -> x + 1).provide(nothing()));
+  }
+
+  @Test
+  public void fromCompletionStage() {
+    ZIO<Nothing, Throwable, Integer> program =
+        ZIO.fromCompletionStage(() -> CompletableFuture.supplyAsync(() -> 10));
+
+    assertEquals(Either.right(10), program.provide(nothing()));
+  }
+
+  @Test
+  public void fromCompletionStageFailure() {
+    var error = new UnsupportedOperationException();
+    ZIO<Nothing, Throwable, Integer> program =
+        ZIO.fromCompletionStage(() -> CompletableFuture.supplyAsync(() -> { throw error; }));
+
+    assertEquals(Either.left(error), program.provide(nothing()));
+  }
+
   @Test
   public void safeRunAsyncObservable() {
     var scheduler = Schedulers.from(Executors.newFixedThreadPool(2));
@@ -159,6 +457,272 @@ public class ZIOTest {
     assertEquals(Either.right(5), result.map(List::size));
   }
 
+  @Test
+  public void toSingle() {
+    var result = parseInt("1").map(x -> x + 1).toSingle(nothing()).blockingGet();
+
+    assertEquals(Either.right(2), result);
+  }
+
+  @Test
+  public void toMaybeRight() {
+    var result = parseInt("1").toMaybe(nothing()).blockingGet();
+
+    assertEquals(1, result);
+  }
+
+  @Test
+  public void toMaybeLeft() {
+    var result = parseInt("asdf").toMaybe(nothing()).blockingGet();
+
+    assertNull(result);
+  }
+
+  @Test
+  public void toSingleDeepChain() {
+    ZIO<Nothing, Nothing, Integer> program = ZIO.task(() -> 0);
+    for (int i = 0; i < 100_000; i++) {
+      program = program.flatMap(x -> ZIO.pure(x + 1));
+    }
+
+    assertEquals(Either.right(100_000), program.toObservable(nothing()).blockingSingle());
+  }
+
+  @Test
+  public void toSingleDisposeInterrupts() throws InterruptedException {
+    var counter = new AtomicInteger();
+    var started = new CountDownLatch(1);
+    var program = ZIO.<Nothing, String, Unit>task(() -> { started.countDown(); return Unit.unit(); })
+        .andThen(forever(counter));
+
+    var disposable = program.toSingle(nothing()).subscribeOn(Schedulers.io()).subscribe();
+    started.await();
+    disposable.dispose();
+    Thread.sleep(50);
+    var stopped = counter.get();
+    Thread.sleep(50);
+
+    assertEquals(stopped, counter.get());
+  }
+
+  @Test
+  public void sleep() {
+    var start = System.nanoTime();
+
+    var result = ZIO.<Nothing, String>sleep(Duration.ofMillis(50)).provide(nothing());
+
+    assertEquals(Either.right(Unit.unit()), result);
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+  }
+
+  @Test
+  public void manySleeps() {
+    var program = ZIO.foreachParN(10_000, List.range(0, 10_000),
+        i -> ZIO.<Nothing, String>sleep(Duration.ofMillis(i % 100)).map(ignore -> i));
+
+    var result = program.provide(nothing());
+
+    assertEquals(Either.right(49_995_000), result.map(values -> values.sum().intValue()));
+  }
+
+  @Test
+  public void delay() {
+    var counter = new AtomicInteger();
+    var program = ZIO.<Nothing, String, Integer>task(counter::incrementAndGet).delay(Duration.ofMillis(50));
+
+    var future = program.toFuture(nothing());
+
+    assertEquals(0, counter.get());
+    assertEquals(Either.right(1), future.get());
+  }
+
+  @Test
+  public void timeoutCompletes() {
+    var program = ZIO.<Nothing, String, Integer>pure(10).timeout(Duration.ofSeconds(1));
+
+    assertEquals(Either.right(Option.some(10)), program.provide(nothing()));
+  }
+
+  @Test
+  public void timeoutFailure() {
+    var program = ZIO.<Nothing, String, Integer>failure("error").timeout(Duration.ofSeconds(1));
+
+    assertEquals(Either.left("error"), program.provide(nothing()));
+  }
+
+  @Test
+  public void timeoutInterruptsEffect() throws InterruptedException {
+    var counter = new AtomicInteger();
+
+    var result = forever(counter).timeout(Duration.ofMillis(50)).provide(nothing());
+
+    Thread.sleep(50);
+    var stopped = counter.get();
+    Thread.sleep(50);
+    assertEquals(Either.right(Option.none()), result);
+    assertEquals(stopped, counter.get());
+  }
+
+  @Test
+  public void race() throws InterruptedException {
+    // both sides share the only thread, so the looping one has to yield to the timer
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var counter = new AtomicInteger();
+      var slow = forever(counter);
+      var fast = ZIO.<Nothing, String, Integer>pure(-1).delay(Duration.ofMillis(20));
+
+      var result = slow.race(fast).toFuture(executor, nothing()).await(5, TimeUnit.SECONDS);
+
+      Thread.sleep(50);
+      var stopped = counter.get();
+      Thread.sleep(50);
+      assertEquals(Option.some(Either.right(-1)), result.getValue().map(Try::get));
+      assertEquals(stopped, counter.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void raceFailure() {
+    var slow = ZIO.<Nothing, String, Integer>pure(1).delay(Duration.ofSeconds(1));
+    var fast = ZIO.<Nothing, String, Integer>failure("error");
+
+    assertEquals(Either.left("error"), slow.race(fast).provide(nothing()));
+  }
+
+  @Test
+  public void raceInterruptedWhileForking() throws InterruptedException {
+    var pool = Executors.newCachedThreadPool();
+    try {
+      var counter = new AtomicInteger();
+      var forking = new CountDownLatch(1);
+      var gate = new CountDownLatch(1);
+      // holds the parent in the fork of the left side until the interruption is sent
+      var executor = gated(pool, 2, forking, gate);
+      var slow = ZIO.<Nothing, String, Integer>pure(-1).delay(Duration.ofSeconds(1));
+
+      var result = forever(counter).race(slow).forkOn(executor)
+          .flatMap(fiber -> ZIO.<Nothing>exec(forking::await).mapError(Throwable::getMessage)
+              .andThen(ZIO.<Nothing>exec(gate::countDown).mapError(Throwable::getMessage).delay(Duration.ofMillis(50)).fork())
+              .andThen(fiber.<Nothing, String>interrupt()));
+
+      assertTrue(result.provide(nothing()).get().isFailure());
+      Thread.sleep(50);
+      var stopped = counter.get();
+      Thread.sleep(50);
+      assertEquals(stopped, counter.get());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void bracket() {
+    var released = new AtomicInteger();
+
+    var result = ZIO.<Nothing, String, Integer, Integer>bracket(
+        ZIO.pure(10), x -> ZIO.pure(x * 2), x -> ZIO.task(released::incrementAndGet)).provide(nothing());
+
+    assertEquals(Either.right(20), result);
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void bracketFailure() {
+    var released = new AtomicInteger();
+
+    var result = ZIO.<Nothing, String, Integer, Integer>bracket(
+        ZIO.pure(10), x -> ZIO.failure("error"), x -> ZIO.task(released::incrementAndGet)).provide(nothing());
+
+    assertEquals(Either.left("error"), result);
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void bracketAcquireFailure() {
+    var released = new AtomicInteger();
+
+    var result = ZIO.<Nothing, String, Integer, Integer>bracket(
+        ZIO.failure("error"), x -> ZIO.pure(x), x -> ZIO.task(released::incrementAndGet)).provide(nothing());
+
+    assertEquals(Either.left("error"), result);
+    assertEquals(0, released.get());
+  }
+
+  @Test
+  public void bracketDefect() {
+    var released = new AtomicInteger();
+
+    var result = ZIO.<Nothing, String, Integer, Integer>bracket(ZIO.pure(10),
+        x -> ZIO.task(() -> { throw new UnsupportedOperationException(); }),
+        x -> ZIO.task(released::incrementAndGet)).toFuture(nothing()).await();
+
+    assertEquals(UnsupportedOperationException.class, result.getCause().get().getClass());
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void bracketInterrupted() throws InterruptedException {
+    var released = new CountDownLatch(1);
+    var counter = new AtomicInteger();
+    var program = ZIO.<Nothing, String, Integer, Integer>bracket(
+        ZIO.pure(10), x -> forever(counter), x -> ZIO.exec(released::countDown));
+
+    var result = program.timeout(Duration.ofMillis(50)).provide(nothing());
+
+    assertEquals(Either.right(Option.none()), result);
+    assertTrue(released.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void ensuring() {
+    var finalized = new AtomicInteger();
+
+    var result = ZIO.<Nothing, String, Integer>failure("error")
+        .ensuring(ZIO.task(finalized::incrementAndGet)).provide(nothing());
+
+    assertEquals(Either.left("error"), result);
+    assertEquals(1, finalized.get());
+  }
+
+  @Test
+  public void uninterruptible() {
+    var counter = new AtomicInteger();
+    var program = ZIO.<Nothing, String>sleep(Duration.ofMillis(100))
+        .andThen(ZIO.task(counter::incrementAndGet)).uninterruptible();
+
+    var result = program.timeout(Duration.ofMillis(10)).provide(nothing());
+
+    assertEquals(Either.right(Option.none()), result);
+    assertEquals(Either.right(1), ZIO.<Nothing, String>sleep(Duration.ofMillis(200))
+        .map(ignore -> counter.get()).provide(nothing()));
+  }
+
+  // runs the given call to execute only once the gate is open
+  static Executor gated(Executor executor, int call, CountDownLatch reached, CountDownLatch gate) {
+    var calls = new AtomicInteger();
+    return command -> {
+      if (calls.incrementAndGet() == call) {
+        reached.countDown();
+        Try.run(gate::await);
+      }
+      executor.execute(command);
+    };
+  }
+
+  private ZIO<Nothing, String, Integer> forever(AtomicInteger counter) {
+    return ZIO.<Nothing, String, Integer>task(counter::incrementAndGet).flatMap(x -> forever(counter));
+  }
+
+  private ZIO<Nothing, Nothing, Long> sum(int n, long acc) {
+    if (n == 0) {
+      return ZIO.pure(acc);
+    }
+    return ZIO.<Nothing, Nothing, Integer>pure(n).flatMap(x -> sum(x - 1, acc + x));
+  }
+
   private ZIO<Nothing, Throwable, Integer> parseInt(String string) {
     return ZIO.from(() -> Integer.parseInt(string));
   }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.Tuple;
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class ZLatchTest {
+
+  @Test
+  public void awaitUntilZero() {
+    var latch = ZLatch.of(3);
+    var warmed = new AtomicInteger();
+    var warmup = List.range(0, 3).map(i -> ZIO.<Nothing, Nothing, Integer>task(warmed::incrementAndGet)
+        .delay(Duration.ofMillis(10 * i)).andThen(latch.countDown()).fork());
+
+    var result = ZIO.collectAll(warmup).andThen(latch.await()).andThen(ZIO.task(warmed::get));
+
+    assertEquals(Either.right(3), result.provide(nothing()));
+  }
+
+  @Test
+  public void countNeverBelowZero() {
+    var latch = ZLatch.of(1);
+
+    var result = latch.<Nothing, Nothing>countDown().andThen(latch.countDown())
+        .andThen(latch.await()).andThen(latch.count());
+
+    assertEquals(Either.right(0), result.provide(nothing()));
+  }
+
+  @Test
+  public void zeroIsOpen() {
+    var latch = ZLatch.of(0);
+
+    var result = latch.<Nothing, Nothing>await().andThen(latch.count());
+
+    assertEquals(Either.right(0), result.provide(nothing()));
+  }
+
+  @Test
+  public void timeoutWhileClosed() {
+    var latch = ZLatch.of(1);
+
+    var result = latch.<Nothing, Nothing>await().timeout(Duration.ofMillis(20))
+        .flatMap(first -> latch.<Nothing, Nothing>count().map(count -> Tuple.of(first.isEmpty(), count)));
+
+    assertEquals(Either.right(Tuple.of(true, 1)), result.provide(nothing()));
+  }
+}
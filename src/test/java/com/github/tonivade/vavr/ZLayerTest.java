@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class ZLayerTest {
+
+  @Test
+  public void provideLayer() {
+    var log = new ConcurrentLinkedQueue<String>();
+    var layer = service(log, "db").map(String::length);
+
+    ZIO<Integer, String, Integer> program = ZIO.accessM(length -> ZIO.pure(length * 10));
+
+    assertEquals(Either.right(20), program.provideLayer(layer).provide(nothing()));
+    assertEquals(List.of("acquire db", "release db"), List.ofAll(log));
+  }
+
+  @Test
+  public void verticalComposition() {
+    var log = new ConcurrentLinkedQueue<String>();
+    ZLayer<String, String, String> repository = ZLayer.fromManaged(ZManaged.make(
+        ZIO.accessM(db -> { log.add("acquire repo(" + db + ")"); return ZIO.pure("repo(" + db + ")"); }),
+        repo -> ZIO.task(() -> log.add("release " + repo))));
+
+    var layer = service(log, "db").to(repository);
+
+    assertEquals(Either.right("repo(db)"), ZLayerTest.<String>env().provideLayer(layer).provide(nothing()));
+    assertEquals(
+        List.of("acquire db", "acquire repo(db)", "release repo(db)", "release db"), List.ofAll(log));
+  }
+
+  @Test
+  public void sharedLayerIsBuiltOnce() {
+    var counter = new AtomicInteger();
+    ZLayer<Nothing, String, Integer> db =
+        ZLayer.fromEffect(ZIO.task(counter::incrementAndGet));
+
+    var users = db.to(ZLayer.fromFunction(id -> "users" + id));
+    var orders = db.to(ZLayer.fromFunction(id -> "orders" + id));
+
+    var result = ZLayerTest.<Tuple2<String, String>>env().provideLayer(users.zip(orders));
+
+    assertEquals(Either.right(Tuple.of("users1", "orders1")), result.provide(nothing()));
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void independentLayersInParallel() {
+    var first = ZLayer.<Nothing, String, String>fromEffect(ZIO.<Nothing, String>sleep(Duration.ofMillis(200)).andThen(ZIO.pure("a")));
+    var second = ZLayer.<Nothing, String, String>fromEffect(ZIO.<Nothing, String>sleep(Duration.ofMillis(200)).andThen(ZIO.pure("b")));
+
+    var start = System.nanoTime();
+    var result = ZLayerTest.<String>env().provideLayer(first.and(second, String::concat)).provide(nothing());
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    assertEquals(Either.right("ab"), result);
+    assertTrue(elapsed.toMillis() < 350, "elapsed " + elapsed);
+  }
+
+  @Test
+  public void failureReleasesBuiltLayers() {
+    var log = new ConcurrentLinkedQueue<String>();
+    var failing = ZLayer.<Nothing, String, String>fromEffect(
+        ZIO.<Nothing, String>sleep(Duration.ofMillis(50)).andThen(ZIO.failure("error")));
+
+    var layer = service(log, "db").and(failing, String::concat);
+
+    assertEquals(Either.left("error"), ZLayerTest.<String>env().provideLayer(layer).provide(nothing()));
+    assertEquals(List.of("acquire db", "release db"), List.ofAll(log));
+  }
+
+  @Test
+  public void failureInterruptsSiblingBuild() throws InterruptedException {
+    var acquired = new AtomicInteger();
+    var released = new AtomicInteger();
+    var slow = ZLayer.fromManaged(ZManaged.<Nothing, String, String>make(
+        ZIO.<Nothing, String>sleep(Duration.ofMillis(100)).andThen(ZIO.task(() -> "slow" + acquired.incrementAndGet())),
+        value -> ZIO.task(released::incrementAndGet)));
+    var failing = ZLayer.<Nothing, String, String>fromEffect(
+        ZIO.<Nothing, String>sleep(Duration.ofMillis(10)).andThen(ZIO.failure("boom")));
+
+    var result = ZLayerTest.<String>env().provideLayer(slow.and(failing, String::concat)).provide(nothing());
+
+    assertEquals(Either.left("boom"), result);
+    for (int i = 0; i < 50 && (acquired.get() == 0 || released.get() < acquired.get()); i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, acquired.get());
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void provideLayerKeepsExecutor() {
+    var executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "cpu"));
+    try {
+      ZIO<String, String, String> program = ZIO.<String, String>sleep(Duration.ofMillis(10))
+          .andThen(ZIO.accessM(env -> ZIO.pure(env + "@" + Thread.currentThread().getName())));
+
+      var result = program.provideLayer(ZLayer.succeed("env")).toFuture(executor, nothing()).get();
+
+      assertEquals(Either.right("env@cpu"), result);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void interruptionWaitsForProvidedEffect() throws InterruptedException {
+    var log = new ConcurrentLinkedQueue<String>();
+    ZIO<String, String, Unit> program = ZIO.<String, String>sleep(Duration.ofSeconds(10))
+        .ensuring(ZIO.<String, String>sleep(Duration.ofMillis(50)).andThen(ZIO.task(() -> log.add("program"))));
+
+    var result = program.provideLayer(service(log, "db")).fork()
+        .flatMap(fiber -> ZIO.<Nothing, String>sleep(Duration.ofMillis(20)).andThen(fiber.<Nothing, String>interrupt()));
+
+    assertTrue(result.provide(nothing()).get().isFailure());
+    assertEquals(List.of("acquire db", "program", "release db"), List.ofAll(log));
+  }
+
+  private static <R> ZIO<R, String, R> env() {
+    return ZIO.accessM(ZIO::pure);
+  }
+
+  private ZLayer<Nothing, String, String> service(ConcurrentLinkedQueue<String> log, String name) {
+    return ZLayer.fromManaged(ZManaged.make(
+        ZIO.task(() -> { log.add("acquire " + name); return name; }),
+        value -> ZIO.task(() -> log.add("release " + value))));
+  }
+}
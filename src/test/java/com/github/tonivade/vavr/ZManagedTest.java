@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class ZManagedTest {
+
+  @Test
+  public void releaseInReverseOrder() {
+    var log = new ConcurrentLinkedQueue<String>();
+
+    var managed = resource(log, "a").flatMap(a -> resource(log, "b").map(b -> a + b));
+    var result = managed.use(value -> ZIO.task(() -> { log.add("use " + value); return value.length(); }));
+
+    assertEquals(Either.right(2), result.provide(nothing()));
+    assertEquals(List.of("acquire a", "acquire b", "use ab", "release b", "release a"), List.ofAll(log));
+  }
+
+  @Test
+  public void releaseOnFailure() {
+    var log = new ConcurrentLinkedQueue<String>();
+
+    var managed = resource(log, "a").flatMap(a -> ZManaged.<Nothing, String, String>fromEffect(ZIO.failure("error")));
+    var result = managed.use(value -> ZIO.pure(value));
+
+    assertEquals(Either.left("error"), result.provide(nothing()));
+    assertEquals(List.of("acquire a", "release a"), List.ofAll(log));
+  }
+
+  @Test
+  public void releaseFailureIsIgnored() {
+    var log = new ConcurrentLinkedQueue<String>();
+    var failing = ZManaged.<Nothing, String, String>make(ZIO.pure("x"), x -> ZIO.failure("ignored"));
+
+    var managed = resource(log, "a").flatMap(a -> failing);
+    var result = managed.use(value -> ZIO.pure(value));
+
+    assertEquals(Either.right("x"), result.provide(nothing()));
+    assertEquals(List.of("acquire a", "release a"), List.ofAll(log));
+  }
+
+  @Test
+  public void fromAutoCloseable() {
+    var closed = new AtomicBoolean();
+    AutoCloseable closeable = () -> closed.set(true);
+
+    var result = ZManaged.<Nothing, Throwable, AutoCloseable>fromAutoCloseable(ZIO.pure(closeable))
+        .use(value -> ZIO.pure(closed.get()));
+
+    assertEquals(Either.right(false), result.provide(nothing()));
+    assertTrue(closed.get());
+  }
+
+  @Test
+  public void releaseRightAwayInClosedScope() {
+    var log = new ConcurrentLinkedQueue<String>();
+    var scope = new Scope();
+
+    var result = scope.<Nothing, String>close().andThen(resource(log, "a").reserve(scope));
+
+    assertEquals(Either.right("a"), result.provide(nothing()));
+    assertEquals(List.of("acquire a", "release a"), List.ofAll(log));
+  }
+
+  private ZManaged<Nothing, String, String> resource(ConcurrentLinkedQueue<String> log, String name) {
+    return ZManaged.make(
+        ZIO.task(() -> { log.add("acquire " + name); return name; }),
+        value -> ZIO.task(() -> log.add("release " + value)));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.Tuple;
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+
+public class ZPoolTest {
+
+  private final AtomicInteger acquired = new AtomicInteger();
+  private final AtomicInteger released = new AtomicInteger();
+
+  @Test
+  public void reuseItems() {
+    var program = ZPool.make(resource(), 4).use(pool -> use(pool).andThen(use(pool)).andThen(use(pool)));
+
+    assertEquals(Either.right(1), program.provide(nothing()));
+    assertEquals(1, acquired.get());
+    assertEquals(1, released.get());
+  }
+
+  @Test
+  public void maxSize() {
+    var program = ZPool.make(resource(), 2).use(pool ->
+        ZIO.foreachParN(10, List.range(0, 10), i -> pool.get().use(value ->
+            ZIO.<Nothing, String>sleep(Duration.ofMillis(10)).map(ignore -> value)))
+            .flatMap(ignore -> pool.<Nothing, String>size()));
+
+    assertEquals(Either.right(2), program.provide(nothing()));
+    assertEquals(2, acquired.get());
+    assertEquals(2, released.get());
+  }
+
+  @Test
+  public void minSize() {
+    var program = ZPool.make(resource(), 3, 5, Duration.ofSeconds(1))
+        .use(pool -> pool.<Nothing, String>available());
+
+    assertEquals(Either.right(3), program.provide(nothing()));
+    assertEquals(3, released.get());
+  }
+
+  @Test
+  public void idleEviction() {
+    var program = ZPool.make(resource(), 1, 3, Duration.ofMillis(20)).use(pool ->
+        ZIO.foreachParN(3, List.range(0, 3), i -> pool.get().use(value ->
+            ZIO.<Nothing, String>sleep(Duration.ofMillis(10)).map(ignore -> value)))
+            .flatMap(ignore -> pool.<Nothing, String>size()).flatMap(before ->
+                ZIO.<Nothing, String>sleep(Duration.ofMillis(200))
+                    .andThen(pool.<Nothing, String>size()).map(after -> Tuple.of(before, after))));
+
+    assertEquals(Either.right(Tuple.of(3, 1)), program.provide(nothing()));
+    assertEquals(3, acquired.get());
+    assertEquals(3, released.get());
+  }
+
+  @Test
+  public void interruptedWaiterDoesNotLeak() {
+    var program = ZPool.make(resource(), 1).use(pool ->
+        pool.get().use(holding -> pool.get().use(ZIO::<Nothing, String, Integer>pure).timeout(Duration.ofMillis(20)))
+            .flatMap(waited -> use(pool).map(value -> Tuple.of(waited, value))));
+
+    assertEquals(Either.right(Tuple.of(Option.none(), 1)), program.provide(nothing()));
+    assertEquals(1, acquired.get());
+  }
+
+  @Test
+  public void allocationFailure() {
+    var attempts = new AtomicInteger();
+    var failing = ZManaged.<Nothing, String, Integer>make(
+        ZIO.from(() -> attempts.incrementAndGet() == 1 ? Either.left("error") : Either.right(attempts.get())),
+        value -> ZIO.unit());
+
+    var program = ZPool.make(failing, 1).use(pool -> {
+      var get = pool.get().use(ZIO::<Nothing, String, Integer>pure);
+      return get.<String, String>foldM(ZIO::pure, value -> ZIO.pure("ok " + value)).flatMap(first ->
+          get.map(second -> first + ", " + second));
+    });
+
+    assertEquals(Either.right("error, 2"), program.provide(nothing()));
+  }
+
+  private ZIO<Nothing, String, Integer> use(ZPool<Nothing, String, Integer> pool) {
+    return pool.get().use(ZIO::pure);
+  }
+
+  private ZManaged<Nothing, String, Integer> resource() {
+    return ZManaged.make(ZIO.task(acquired::incrementAndGet), value -> ZIO.task(released::incrementAndGet));
+  }
+}
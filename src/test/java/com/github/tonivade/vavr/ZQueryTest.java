@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Set;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+
+public class ZQueryTest {
+
+  private final ConcurrentLinkedQueue<Set<Integer>> calls = new ConcurrentLinkedQueue<>();
+
+  private final DataSource<Nothing, String, Integer, String> users = DataSource.of(keys -> ZIO.task(() -> {
+    calls.add(keys);
+    return keys.filter(key -> key >= 0).toMap(key -> key, key -> "user" + key);
+  }));
+
+  @Test
+  public void batchesOneRound() {
+    var query = ZQuery.foreach(List.range(0, 100), id -> ZQuery.fromRequest(id, users));
+
+    var result = query.run().provide(nothing());
+
+    assertEquals(Either.right(100), result.map(values -> values.count(Option::isDefined)));
+    assertEquals(1, calls.size());
+    assertEquals(HashSet.range(0, 100), HashSet.ofAll(calls.peek()));
+  }
+
+  @Test
+  public void deduplicatesKeys() {
+    var query = ZQuery.foreach(List.of(1, 2, 1, 2, 1), id -> ZQuery.fromRequest(id, users));
+
+    var result = query.run().provide(nothing());
+
+    assertEquals(Either.right(List.of("user1", "user2", "user1", "user2", "user1")),
+        result.map(values -> List.ofAll(values).map(Option::get)));
+    assertEquals(List.of(HashSet.of(1, 2)), List.ofAll(calls).map(HashSet::ofAll));
+  }
+
+  @Test
+  public void cachesAcrossRounds() {
+    var query = ZQuery.fromRequest(1, users)
+        .flatMap(first -> ZQuery.foreach(List.of(1, 2), id -> ZQuery.fromRequest(id, users)));
+
+    var result = query.run().provide(nothing());
+
+    assertEquals(Either.right(List.of(Option.some("user1"), Option.some("user2"))), result.map(List::ofAll));
+    assertEquals(List.of(HashSet.of(1), HashSet.of(2)), List.ofAll(calls).map(HashSet::ofAll));
+  }
+
+  @Test
+  public void eachRunHasItsOwnCache() {
+    var query = ZQuery.fromRequest(1, users);
+
+    query.run().provide(nothing());
+    query.run().provide(nothing());
+
+    assertEquals(2, calls.size());
+  }
+
+  @Test
+  public void missingKey() {
+    var query = ZQuery.fromRequest(-1, users);
+
+    assertEquals(Either.right(Option.none()), query.run().provide(nothing()));
+  }
+
+  @Test
+  public void batchSize() {
+    var small = DataSource.<Nothing, String, Integer, String>of(10, keys -> ZIO.task(() -> {
+      calls.add(keys);
+      return keys.toMap(key -> key, String::valueOf);
+    }));
+
+    var result = ZQuery.foreach(List.range(0, 25), id -> ZQuery.fromRequest(id, small)).run().provide(nothing());
+
+    assertEquals(Either.right(25), result.map(values -> values.size()));
+    assertEquals(List.of(10, 10, 5), List.ofAll(calls).map(Set::size).sorted().reverse());
+  }
+
+  @Test
+  public void severalSources() {
+    var other = DataSource.<Nothing, String, Integer, String>of(keys -> ZIO.task(() -> {
+      calls.add(keys);
+      return keys.toMap(key -> key, key -> "other" + key);
+    }));
+
+    var query = ZQuery.fromRequest(1, users).zipWith(ZQuery.fromRequest(1, other), (a, b) -> a.get() + b.get());
+
+    assertEquals(Either.right("user1other1"), query.run().provide(nothing()));
+    assertEquals(2, calls.size());
+  }
+
+  @Test
+  public void failure() {
+    var failing = DataSource.<Nothing, String, Integer, String>of(keys -> ZIO.failure("error"));
+
+    var query = ZQuery.foreach(List.of(1, 2), id -> ZQuery.fromRequest(id, failing));
+
+    assertEquals(Either.left("error"), query.run().provide(nothing()));
+  }
+
+  @Test
+  public void mapErrorOfFailedFetch() {
+    var failing = DataSource.<Nothing, String, Integer, String>of(keys -> ZIO.failure("error"));
+
+    var query = ZQuery.fromRequest(1, failing).mapError(String::length)
+        .zipWith(ZQuery.fromRequest(2, users).mapError(String::length), (a, b) -> a)
+        .mapError(length -> length * 2);
+
+    assertEquals(Either.left(10), query.run().provide(nothing()));
+  }
+}
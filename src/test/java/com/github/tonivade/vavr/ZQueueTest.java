@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.control.Either;
+
+public class ZQueueTest {
+
+  @Test
+  public void offerTake() {
+    var queue = ZQueue.<Integer>bounded(2);
+
+    var program = queue.<Nothing, Nothing>offer(1).andThen(queue.offer(2))
+        .andThen(queue.take()).flatMap(x -> queue.<Nothing, Nothing>take().map(y -> List.of(x, y)));
+
+    assertEquals(Either.right(List.of(1, 2)), program.provide(nothing()));
+  }
+
+  @Test
+  public void takeSuspendsUntilOffer() {
+    var queue = ZQueue.<String>bounded(2);
+
+    var program = queue.<Nothing, Nothing>take().fork()
+        .flatMap(fiber -> queue.<Nothing, Nothing>offer("hello").andThen(fiber.join()));
+
+    assertEquals(Either.right("hello"), program.provide(nothing()));
+  }
+
+  @Test
+  public void offerSuspendsWhenFull() {
+    var queue = ZQueue.<Integer>bounded(1);
+
+    var program = queue.<Nothing, Nothing>offer(1)
+        .andThen(queue.<Nothing, Nothing>offer(2).fork())
+        .flatMap(fiber -> queue.<Nothing, Nothing>take()
+            .flatMap(x -> fiber.<Nothing>join().andThen(queue.take()).map(y -> List.of(x, y))));
+
+    assertEquals(Either.right(List.of(1, 2)), program.provide(nothing()));
+  }
+
+  @Test
+  public void dropping() {
+    var queue = ZQueue.<Integer>dropping(2);
+
+    var program = queue.<Nothing, Nothing>offerAll(List.of(1, 2, 3))
+        .flatMap(all -> queue.<Nothing, Nothing>takeAll().map(items -> List.of(all, items)));
+
+    assertEquals(Either.right(List.of(false, Chunk.of(1, 2))), program.provide(nothing()));
+  }
+
+  @Test
+  public void sliding() {
+    var queue = ZQueue.<Integer>sliding(2);
+
+    var program = queue.<Nothing, Nothing>offerAll(List.of(1, 2, 3))
+        .flatMap(all -> queue.<Nothing, Nothing>takeAll().map(items -> List.of(all, items)));
+
+    assertEquals(Either.right(List.of(true, Chunk.of(2, 3))), program.provide(nothing()));
+  }
+
+  @Test
+  public void takeUpTo() {
+    var queue = ZQueue.<Integer>bounded(10);
+
+    var program = queue.<Nothing, Nothing>offerAll(List.range(0, 5))
+        .andThen(queue.takeUpTo(3)).flatMap(first -> queue.<Nothing, Nothing>takeUpTo(3).map(second -> List.of(first, second)));
+
+    assertEquals(Either.right(List.of(Chunk.of(0, 1, 2), Chunk.of(3, 4))), program.provide(nothing()));
+  }
+
+  @Test
+  public void offerAllSuspendsWhenFull() {
+    var queue = ZQueue.<Integer>bounded(4);
+
+    var program = queue.<Nothing, Nothing>offerAll(List.range(0, 1000)).fork()
+        .flatMap(fiber -> sum(queue, 1000, 0L));
+
+    assertEquals(Either.right(499_500L), program.provide(nothing()));
+  }
+
+  @Test
+  public void producersAndConsumers() {
+    var queue = ZQueue.<Integer>bounded(16);
+
+    ZIO<Nothing, Nothing, Unit> producer = ZIO.unit();
+    for (int i = 0; i < 1000; i++) {
+      producer = producer.andThen(queue.offer(i)).andThen(ZIO.unit());
+    }
+    var producers = ZIO.collectAllPar(List.fill(4, producer));
+    var consumers = ZIO.collectAllPar(List.fill(4, sum(queue, 1000, 0L)));
+
+    var program = producers.fork().flatMap(fiber -> consumers.map(sums -> sums.sum().longValue()));
+
+    assertEquals(Either.right(4 * 499_500L), program.provide(nothing()));
+  }
+
+  @Test
+  public void interruptedTakerDoesNotLoseItems() {
+    var queue = ZQueue.<Integer>bounded(4);
+
+    var program = queue.<Nothing, Nothing>take().fork()
+        .flatMap(fiber -> fiber.<Nothing, Nothing>interrupt())
+        .flatMap(result -> queue.<Nothing, Nothing>offer(1).andThen(queue.take()).map(x -> List.of(result.getCause(), x)));
+
+    var result = program.provide(nothing()).get();
+
+    assertEquals(CancellationException.class, result.get(0).getClass());
+    assertEquals(1, result.get(1));
+  }
+
+  private ZIO<Nothing, Nothing, Long> sum(ZQueue<Integer> queue, int n, long acc) {
+    if (n == 0) {
+      return ZIO.pure(acc);
+    }
+    return queue.<Nothing, Nothing>take().flatMap(x -> sum(queue, n - 1, acc + x));
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2019, Antonio Gabriel Muñoz Conejo <antoniogmc at gmail dot com>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.vavr;
+
+import static com.github.tonivade.vavr.Nothing.nothing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.vavr.collection.List;
+import io.vavr.collection.Stream;
+import io.vavr.control.Either;
+
+public class ZStreamTest {
+
+  @Test
+  public void mapAndFilter() {
+    var program = ZStream.<Nothing, Nothing>range(0, 10)
+        .map(x -> x * 3).filter(x -> x % 2 == 0).map(String::valueOf).runCollect();
+
+    assertEquals(Either.right(Chunk.of("0", "6", "12", "18", "24")), program.provide(nothing()));
+  }
+
+  @Test
+  public void fold() {
+    var program = ZStream.<Nothing, Nothing>range(0, 1_000_000).fold(0L, (acc, x) -> acc + x);
+
+    assertEquals(Either.right(499_999_500_000L), program.provide(nothing()));
+  }
+
+  @Test
+  public void reusable() {
+    var stream = ZStream.<Nothing, Nothing, Integer>of(1, 2, 3).map(x -> x * 2);
+
+    var program = stream.runCollect().flatMap(first -> stream.fold(0, Integer::sum).map(sum -> first.size() + sum));
+
+    assertEquals(Either.right(15), program.provide(nothing()));
+  }
+
+  @Test
+  public void mapM() {
+    var program = ZStream.<Nothing, String, Integer>of(1, 2, 3)
+        .mapM(x -> ZIO.<Nothing, String, Integer>task(() -> x * 10)).runCollect();
+
+    assertEquals(Either.right(Chunk.of(10, 20, 30)), program.provide(nothing()));
+  }
+
+  @Test
+  public void mapMFailure() {
+    var program = ZStream.<Nothing, String, Integer>of(1, 2, 3)
+        .mapM(x -> x == 2 ? ZIO.<Nothing, String, Integer>failure("error") : ZIO.<Nothing, String, Integer>pure(x))
+        .runCollect();
+
+    assertEquals(Either.left("error"), program.provide(nothing()));
+  }
+
+  @Test
+  public void mapMPar() {
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+
+    var program = ZStream.<Nothing, Throwable>range(0, 100)
+        .mapMPar(4, x -> ZIO.<Nothing, Integer>effectBlocking(() -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(1);
+          running.decrementAndGet();
+          return x * 2;
+        }))
+        .fold(0, Integer::sum);
+
+    assertEquals(Either.right(9900), program.provide(nothing()));
+    assertEquals(true, maxRunning.get() <= 4);
+  }
+
+  @Test
+  public void mapMParRunsInParallel() {
+    var started = new CountDownLatch(4);
+
+    var program = ZStream.<Nothing, Throwable>range(0, 4)
+        .mapMPar(4, x -> ZIO.<Nothing, Boolean>effectBlocking(() -> {
+          started.countDown();
+          return started.await(5, TimeUnit.SECONDS);
+        }))
+        .runCollect();
+
+    assertEquals(Either.right(Chunk.of(true, true, true, true)), program.provide(nothing()));
+  }
+
+  @Test
+  public void mapMParAcrossChunks() {
+    var started = new CountDownLatch(4);
+    var source = ZStream.<Nothing, Throwable, Integer>fromEffect(ZIO.pure(1))
+        .merge(ZStream.fromEffect(ZIO.pure(2)))
+        .merge(ZStream.fromEffect(ZIO.pure(3)))
+        .merge(ZStream.fromEffect(ZIO.pure(4)));
+
+    var program = source
+        .mapMPar(4, x -> ZIO.<Nothing, Integer>effectBlocking(() -> {
+          started.countDown();
+          return started.await(5, TimeUnit.SECONDS) ? x : 0;
+        }))
+        .fold(0, Integer::sum);
+
+    assertEquals(Either.right(10), program.provide(nothing()));
+  }
+
+  @Test
+  public void mapMParKeepsOrder() {
+    var program = ZStream.<Nothing, Throwable>range(0, 8)
+        .mapMPar(4, x -> ZIO.<Nothing, Integer>effectBlocking(() -> {
+          Thread.sleep(8 - x);
+          return x;
+        }))
+        .runCollect();
+
+    assertEquals(Either.right(Chunk.of(0, 1, 2, 3, 4, 5, 6, 7)), program.provide(nothing()));
+  }
+
+  @Test
+  public void grouped() {
+    var program = ZStream.<Nothing, Nothing>range(0, 7).grouped(3).runCollect();
+
+    assertEquals(Either.right(Chunk.of(Chunk.of(0, 1, 2), Chunk.of(3, 4, 5), Chunk.of(6))), program.provide(nothing()));
+  }
+
+  @Test
+  public void takeInfinite() {
+    var program = ZStream.<Nothing, Nothing, Integer>fromIterable(Stream.from(1)).take(5).runCollect();
+
+    assertEquals(Either.right(Chunk.of(1, 2, 3, 4, 5)), program.provide(nothing()));
+  }
+
+  @Test
+  public void merge() {
+    var program = ZStream.<Nothing, Nothing>range(0, 5000)
+        .merge(ZStream.range(5000, 10000)).fold(0L, (acc, x) -> acc + x);
+
+    assertEquals(Either.right(49_995_000L), program.provide(nothing()));
+  }
+
+  @Test
+  public void mergeFailure() {
+    var program = ZStream.<Nothing, String>range(0, 10)
+        .merge(ZStream.fromEffect(ZIO.failure("error"))).runCollect();
+
+    assertEquals(Either.left("error"), program.provide(nothing()));
+  }
+
+  @Test
+  public void mergeStoppedEarly() throws InterruptedException {
+    var released = new CountDownLatch(1);
+
+    var program = mergeWithSleeping(released).take(1).runCollect();
+
+    assertEquals(Either.right(Chunk.of(0)), program.provide(nothing()));
+    assertTrue(released.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void mergeCancelled() throws InterruptedException {
+    var released = new CountDownLatch(1);
+
+    var values = mergeWithSleeping(released).toFlowable(nothing()).take(1).toList().blockingGet();
+
+    assertEquals(List.of(Either.right(0)), List.ofAll(values));
+    assertTrue(released.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void foreach() {
+    var counter = new AtomicInteger();
+
+    var program = ZStream.<Nothing, Nothing>range(0, 100)
+        .foreach(x -> ZIO.<Nothing, Nothing, Integer>task(() -> counter.addAndGet(x)));
+
+    assertEquals(Either.right(Unit.unit()), program.provide(nothing()));
+    assertEquals(4950, counter.get());
+  }
+
+  @Test
+  public void toFlowableBackpressure() throws InterruptedException {
+    var pulled = new AtomicInteger();
+    var stream = ZStream.<Nothing, String, Integer>fromIterable(Stream.from(0)).take(5000)
+        .map(x -> { pulled.incrementAndGet(); return x; });
+
+    var subscriber = stream.toFlowable(nothing()).test(0);
+    subscriber.request(3);
+    subscriber.awaitCount(3);
+    Thread.sleep(50);
+
+    subscriber.assertValueSequence(List.of(Either.right(0), Either.right(1), Either.right(2)));
+    assertEquals(ZStream.CHUNK_SIZE, pulled.get());
+
+    subscriber.request(Long.MAX_VALUE);
+    subscriber.await(5, TimeUnit.SECONDS);
+    subscriber.assertValueCount(5000).assertComplete();
+  }
+
+  @Test
+  public void toFlowableFailure() throws InterruptedException {
+    var stream = ZStream.<Nothing, String, Integer>of(1, 2).merge(ZStream.fromEffect(ZIO.failure("error")));
+
+    var subscriber = stream.toFlowable(nothing()).filter(Either::isLeft).test();
+    subscriber.await(5, TimeUnit.SECONDS);
+
+    subscriber.assertValue(Either.left("error")).assertComplete();
+  }
+
+  // the first side emits once the second one is sleeping, so the second is always in flight
+  private static ZStream<Nothing, String, Integer> mergeWithSleeping(CountDownLatch released) {
+    var sleeping = new CountDownLatch(1);
+    var first = ZIO.<Nothing, Integer>effectBlocking(() -> {
+      sleeping.await();
+      return 0;
+    }).mapError(Throwable::getMessage);
+    var second = ZIO.<Nothing, String, Unit>task(() -> { sleeping.countDown(); return Unit.unit(); })
+        .andThen(ZIO.sleep(Duration.ofSeconds(10))).ensuring(ZIO.<Nothing>exec(released::countDown))
+        .andThen(ZIO.<Nothing, String, Integer>pure(1));
+    return ZStream.fromEffect(first).merge(ZStream.fromEffect(second));
+  }
+}